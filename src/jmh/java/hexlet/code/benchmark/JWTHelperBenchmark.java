@@ -0,0 +1,96 @@
+package hexlet.code.benchmark;
+
+import hexlet.code.component.JWTHelper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.jsonwebtoken.SignatureAlgorithm.HS256;
+import static io.jsonwebtoken.impl.TextCodec.BASE64;
+
+// Сравнение JWTHelper с прежней реализацией на jjwt 0.9.1.
+// Запуск: ./gradlew jmh (аллокации видны в колонке gc.alloc.rate.norm)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JWTHelperBenchmark {
+
+    private static final String ISSUER = "task-manager";
+    private static final long EXPIRATION_SEC = 86400L;
+    private static final long CLOCK_SKEW_SEC = 300L;
+    private static final String SECRET = BASE64.encode("secret");
+    private static final Map<String, Object> ATTRIBUTES = Map.of("username", "email@yandex.ru");
+
+    private JWTHelper jwtHelper;
+    private String jjwtToken;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtHelper = new JWTHelper(ISSUER, EXPIRATION_SEC, CLOCK_SKEW_SEC, "secret");
+        jjwtToken = jjwtExpiring();
+        token = jwtHelper.expiring(ATTRIBUTES);
+
+        // токены должны быть взаимозаменяемы
+        jwtHelper.verify(jjwtToken);
+        jjwtVerify(token);
+    }
+
+    @Benchmark
+    public String expiringJjwt() {
+        return jjwtExpiring();
+    }
+
+    @Benchmark
+    public String expiringHelper() {
+        return jwtHelper.expiring(ATTRIBUTES);
+    }
+
+    @Benchmark
+    public Object verifyJjwt() {
+        return jjwtVerify(jjwtToken);
+    }
+
+    @Benchmark
+    public Object verifyHelper() {
+        return jwtHelper.verify(token);
+    }
+
+    private static String jjwtExpiring() {
+        final Claims claims = Jwts.claims();
+        claims.setIssuer(ISSUER);
+        claims.setIssuedAt(new Date());
+        claims.putAll(ATTRIBUTES);
+        claims.setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_SEC * 1000));
+        return Jwts.builder()
+                .signWith(HS256, SECRET)
+                .setClaims(claims)
+                .compact();
+    }
+
+    private static Map<String, Object> jjwtVerify(final String jwt) {
+        return Jwts.parser()
+                .requireIssuer(ISSUER)
+                .setAllowedClockSkewSeconds(CLOCK_SKEW_SEC)
+                .setSigningKey(SECRET)
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
+}
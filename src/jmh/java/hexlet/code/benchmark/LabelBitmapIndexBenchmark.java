@@ -0,0 +1,173 @@
+package hexlet.code.benchmark;
+
+import hexlet.code.component.LabelBitmapIndex;
+import hexlet.code.dto.TaskLabel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Фильтр задач по набору меток: индекс меток против соединения с tasks_labels в H2 (индекс labels_id, task_id).
+// 1М задач, 1К меток, у задачи 3 метки с распределением, близким к закону Ципфа: метка 0 - примерно
+// у 30% задач, метки с номером больше 100 - у сотен. Оба варианта вычисляют полный набор id задач;
+// у индекса max-ids не ограничен, чтобы видеть, с какого размера результата выгоднее подзапросы.
+// Запуск: ./gradlew jmh -PjmhIncludes=LabelBitmapIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+public class LabelBitmapIndexBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final int LABELS = 1_000;
+    private static final int LABELS_PER_TASK = 3;
+    private static final int BATCH_SIZE = 10_000;
+
+    // Параметры как в GET /tasks: all - все метки, any - любая, without - ни одной
+    @Param({"all=3,17", "all=0,1", "any=200,500,900", "all=0&without=1", "any=0,1&without=2"})
+    private String filter;
+
+    private LabelBitmapIndex index;
+    private Connection connection;
+    private PreparedStatement joinQuery;
+    private Set<Long> all;
+    private Set<Long> any;
+    private Set<Long> without;
+
+    @Setup
+    public void setUp() throws SQLException {
+        parse(filter);
+        final List<TaskLabel> pairs = generate();
+
+        index = new LabelBitmapIndex(null, new SimpleMeterRegistry(), Integer.MAX_VALUE);
+        index.rebuild(pairs.stream());
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:labels;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=0");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table tasks_labels (task_id bigint not null, labels_id bigint not null, "
+                    + "primary key (task_id, labels_id))");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into tasks_labels values (?, ?)")) {
+            for (int i = 0; i < pairs.size(); i++) {
+                insert.setLong(1, pairs.get(i).taskId());
+                insert.setLong(2, pairs.get(i).labelId());
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create index idx_tasks_labels_label_task on tasks_labels (labels_id, task_id)");
+        }
+        joinQuery = connection.prepareStatement(joinSql());
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public Object bitmapIndex() {
+        return index.filter(all, any, without);
+    }
+
+    @Benchmark
+    public List<Long> sqlJoin() throws SQLException {
+        final List<Long> ids = new ArrayList<>();
+        try (ResultSet rows = joinQuery.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private void parse(final String query) {
+        final Map<String, Set<Long>> params = new HashMap<>();
+        for (final String param : query.split("&")) {
+            final String[] nameAndValue = param.split("=");
+            params.put(nameAndValue[0], Arrays.stream(nameAndValue[1].split(","))
+                    .map(Long::valueOf)
+                    .collect(Collectors.toUnmodifiableSet()));
+        }
+        all = params.getOrDefault("all", Set.of());
+        any = params.getOrDefault("any", Set.of());
+        without = params.getOrDefault("without", Set.of());
+    }
+
+    private static List<TaskLabel> generate() {
+        final Random random = new Random(42);
+        final List<TaskLabel> pairs = new ArrayList<>(TASKS * LABELS_PER_TASK);
+        final Set<Long> labels = new HashSet<>();
+        for (long id = 1; id <= TASKS; id++) {
+            labels.clear();
+            while (labels.size() < LABELS_PER_TASK) {
+                // log-uniform номер метки: P(k) ~ 1 / k
+                labels.add((long) Math.exp(random.nextDouble() * Math.log(LABELS)) - 1);
+            }
+            for (final Long labelId : labels) {
+                pairs.add(new TaskLabel(id, labelId));
+            }
+        }
+        return pairs;
+    }
+
+    // Строки задачи с метками из all и any группируются: все из all, хотя бы одна из any, ни одной из without
+    private String joinSql() {
+        final Set<Long> wanted = new HashSet<>(all);
+        wanted.addAll(any);
+        final StringBuilder sql = new StringBuilder("select tl.task_id from tasks_labels tl where tl.labels_id in ")
+                .append(list(wanted))
+                .append(" group by tl.task_id having 1 = 1");
+        if (!all.isEmpty()) {
+            sql.append(" and sum(case when tl.labels_id in ").append(list(all)).append(" then 1 else 0 end) = ")
+                    .append(all.size());
+        }
+        if (!any.isEmpty()) {
+            sql.append(" and sum(case when tl.labels_id in ").append(list(any)).append(" then 1 else 0 end) > 0");
+        }
+        if (!without.isEmpty()) {
+            sql.append(" and not exists (select 1 from tasks_labels x where x.task_id = tl.task_id")
+                    .append(" and x.labels_id in ").append(list(without)).append(')');
+        }
+        return sql.toString();
+    }
+
+    private static String list(final Set<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+}
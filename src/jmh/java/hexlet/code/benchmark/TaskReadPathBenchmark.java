@@ -0,0 +1,163 @@
+package hexlet.code.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import hexlet.code.AppApplication;
+import hexlet.code.model.Label;
+import hexlet.code.model.QTask;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Страница GET /tasks: сущности (persistence context, снимки для dirty checking, flush при коммите)
+// против TaskView из проекций в read-only транзакции. Оба пути сериализуются тем же ObjectMapper.
+// Запуск: ./gradlew jmh -PjmhIncludes=TaskReadPathBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+public class TaskReadPathBenchmark {
+
+    private static final int TASKS = 2_000;
+    private static final int USERS = 20;
+    private static final int STATUSES = 5;
+    private static final int LABELS = 30;
+    private static final int LABELS_PER_TASK = 3;
+    private static final QTask TASK = QTask.task;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private JPAQueryFactory queryFactory;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class).run(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"
+        );
+        taskRepository = context.getBean(TaskRepository.class);
+        queryFactory = new JPAQueryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class)));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        objectMapper = context.getBean(ObjectMapper.class);
+        seed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entities() {
+        return transactionTemplate.execute(status -> toJson(findEntityPage(pageSize)));
+    }
+
+    @Benchmark
+    public byte[] views() {
+        return toJson(taskRepository.findViewPage(null, null, pageSize));
+    }
+
+    // Прежний путь страницы: задачи со статусом, автором и исполнителем, затем метки всех задач страницы.
+    // Коллекцию в первый запрос не добавляем: fetch join коллекции с limit Hibernate делает в памяти.
+    private List<Task> findEntityPage(final int limit) {
+        final List<Task> tasks = queryFactory.selectFrom(TASK)
+                .join(TASK.taskStatus).fetchJoin()
+                .join(TASK.author).fetchJoin()
+                .leftJoin(TASK.executor).fetchJoin()
+                .orderBy(TASK.createdAt.asc(), TASK.id.asc())
+                .limit(limit)
+                .fetch();
+        if (!tasks.isEmpty()) {
+            queryFactory.selectFrom(TASK)
+                    .distinct()
+                    .leftJoin(TASK.labels).fetchJoin()
+                    .where(TASK.in(tasks))
+                    .fetch();
+        }
+        return tasks;
+    }
+
+    private byte[] toJson(final Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void seed() {
+        final List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User(null, "user" + i + "@mail.ru", "First" + i, "Last" + i, "password", null, null));
+        }
+        context.getBean(UserRepository.class).saveAll(users);
+
+        final List<TaskStatus> statuses = new ArrayList<>();
+        for (int i = 0; i < STATUSES; i++) {
+            statuses.add(new TaskStatus(null, "status" + i, null, null));
+        }
+        context.getBean(TaskStatusRepository.class).saveAll(statuses);
+
+        final List<Label> labels = new ArrayList<>();
+        for (int i = 0; i < LABELS; i++) {
+            labels.add(new Label(null, "label" + i, null, null));
+        }
+        context.getBean(LabelRepository.class).saveAll(labels);
+
+        final List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            final HashSet<Label> taskLabels = new HashSet<>();
+            for (int j = 0; j < LABELS_PER_TASK; j++) {
+                taskLabels.add(labels.get((i + j) % LABELS));
+            }
+            tasks.add(Task.builder()
+                    .name("task" + i)
+                    .description("description of task " + i)
+                    .taskStatus(statuses.get(i % STATUSES))
+                    .author(users.get(i % USERS))
+                    .executor(i % 2 == 0 ? users.get((i + 1) % USERS) : null)
+                    .labels(taskLabels)
+                    .build());
+        }
+        taskRepository.saveAll(tasks);
+    }
+
+}
@@ -0,0 +1,62 @@
+package hexlet.code.benchmark;
+
+import hexlet.code.component.TaskSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Задержка поиска по индексу из 1М задач. Тексты синтетические: 12 слов из словаря в 50К слов
+// с распределением, близким к закону Ципфа, поэтому есть и частые ("w0" - в каждой 3-4 задаче), и редкие слова.
+// Запуск: ./gradlew jmh -PjmhIncludes=TaskSearchIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+public class TaskSearchIndexBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int WORDS_PER_TASK = 12;
+    private static final int LIMIT = 20;
+
+    @Param({"w0", "w4000", "w1 w30", "w5 w20 w100"})
+    private String query;
+
+    private TaskSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new TaskSearchIndex();
+        final Random random = new Random(42);
+        final StringBuilder text = new StringBuilder();
+        for (long id = 1; id <= TASKS; id++) {
+            text.setLength(0);
+            for (int word = 0; word < WORDS_PER_TASK; word++) {
+                // log-uniform номер слова: P(k) ~ 1 / k
+                final int rank = (int) Math.exp(random.nextDouble() * Math.log(VOCABULARY)) - 1;
+                text.append('w').append(rank).append(' ');
+            }
+            index.update(id, null, text.toString());
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, LIMIT);
+    }
+
+}
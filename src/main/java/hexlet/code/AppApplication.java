@@ -1,14 +1,19 @@
 package hexlet.code;
 
+import hexlet.code.component.BulkheadPasswordEncoder;
+import hexlet.code.component.PasswordHashingExecutor;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeIn;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+@EnableScheduling
 @SpringBootApplication
 // Авторизации через токен в свагер
 @SecurityScheme(name = "jwtIn", scheme = "bearer", type = SecuritySchemeType.HTTP, in = SecuritySchemeIn.HEADER)
@@ -19,8 +24,9 @@ public class AppApplication {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(final PasswordHashingExecutor passwordHashingExecutor,
+                                           @Value("${password-hashing.bcrypt-strength:10}") final int strength) {
+        return new BulkheadPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashingExecutor);
     }
 
 }
@@ -1,9 +1,19 @@
 package hexlet.code;
 
+import hexlet.code.exception.ChangesExpiredException;
+import hexlet.code.exception.IdempotencyKeyInProgressException;
+import hexlet.code.exception.IdempotencyKeyReusedException;
+import hexlet.code.exception.InvalidCursorException;
+import hexlet.code.exception.PasswordHashingRejectedException;
+import hexlet.code.exception.TooManyItemsException;
+import hexlet.code.exception.UnknownReferencesException;
+import hexlet.code.exception.VersionMismatchException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -11,13 +21,20 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.GONE;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
@@ -38,7 +55,7 @@ public class BaseExceptionHandler {
     }
 
     @ResponseStatus(BAD_REQUEST)
-    @ExceptionHandler({HttpMessageNotReadableException.class})
+    @ExceptionHandler({HttpMessageNotReadableException.class, InvalidCursorException.class})
     public String validationExceptionsHandler(Exception exception) {
         return exception.getMessage();
     }
@@ -49,12 +66,56 @@ public class BaseExceptionHandler {
         return exception.getAllErrors();
     }
 
+    @ResponseStatus(UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(UnknownReferencesException.class)
+    public List<FieldError> unknownReferencesHandler(UnknownReferencesException exception) {
+        return exception.getErrors();
+    }
+
     @ResponseStatus(UNPROCESSABLE_ENTITY)
     @ExceptionHandler(DataIntegrityViolationException.class)
     public String validationExceptionsHandler(DataIntegrityViolationException exception) {
         return exception.getCause().getMessage();
     }
 
+    @ResponseStatus(UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public String idempotencyKeyReusedHandler(IdempotencyKeyReusedException exception) {
+        return exception.getMessage();
+    }
+
+    // Повтор не дождался ответа на первый запрос с тем же ключом
+    @ResponseStatus(CONFLICT)
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public String idempotencyKeyInProgressHandler(IdempotencyKeyInProgressException exception) {
+        return exception.getMessage();
+    }
+
+    @ResponseStatus(PRECONDITION_FAILED)
+    @ExceptionHandler(VersionMismatchException.class)
+    public String versionMismatchHandler(VersionMismatchException exception) {
+        return exception.getMessage();
+    }
+
+    // Запись изменили между чтением и коммитом
+    @ResponseStatus(CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public String optimisticLockingFailureHandler(ObjectOptimisticLockingFailureException exception) {
+        return exception.getMessage();
+    }
+
+    @ResponseStatus(GONE)
+    @ExceptionHandler(ChangesExpiredException.class)
+    public String changesExpiredHandler(ChangesExpiredException exception) {
+        return exception.getMessage();
+    }
+
+    @ResponseStatus(PAYLOAD_TOO_LARGE)
+    @ExceptionHandler(TooManyItemsException.class)
+    public String tooManyItemsHandler(TooManyItemsException exception) {
+        return exception.getMessage();
+    }
+
     @ResponseStatus(FORBIDDEN)
     @ExceptionHandler(AccessDeniedException.class)
     public String accessDeniedException(AccessDeniedException exception) {
@@ -67,4 +128,12 @@ public class BaseExceptionHandler {
         return exception.getMessage();
     }
 
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public String passwordHashingRejectedHandler(PasswordHashingRejectedException exception,
+                                                 HttpServletResponse response) {
+        response.setHeader(RETRY_AFTER, String.valueOf(exception.getRetryAfterSec()));
+        return exception.getMessage();
+    }
+
 }
@@ -0,0 +1,59 @@
+package hexlet.code.component;
+
+import hexlet.code.config.security.AuthenticatedUser;
+import hexlet.code.model.User;
+import hexlet.code.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    private Long id;
+
+    public String getEmail() {
+        return getAuthentication().getName();
+    }
+
+    public Long getId() {
+        if (id == null) {
+            id = resolveId(getAuthentication());
+        }
+        return id;
+    }
+
+    // Загружает пользователя (обычно из кэша второго уровня), например автора новой задачи.
+    // Токен переживает удаление пользователя, поэтому его наличие проверяется здесь, а не внешним ключом.
+    // Если нужен только id - getId() без обращения к БД
+    public User getUser() {
+        return userRepository.findById(getId())
+                .orElseThrow(() -> notFound(getEmail()));
+    }
+
+    private Long resolveId(final Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.id() != null) {
+            return user.id();
+        }
+        // токены, выпущенные до появления userId
+        return userRepository.findByEmail(authentication.getName())
+                .map(User::getId)
+                .orElseThrow(() -> notFound(authentication.getName()));
+    }
+
+    private static UsernameNotFoundException notFound(final String email) {
+        return new UsernameNotFoundException("Not found user with 'username': " + email);
+    }
+
+    private static Authentication getAuthentication() {
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+}
@@ -0,0 +1,153 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hexlet.code.exception.IdempotencyKeyInProgressException;
+import hexlet.code.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+// Повтор запроса с тем же Idempotency-Key получает сохраненный ответ, запрос не выполняется второй раз.
+// Ключ действует в пределах эндпоинта и пользователя; вместе с ответом хранится SHA-256 тела запроса,
+// тот же ключ с другим телом - 422. Пока первый запрос выполняется, повторы ждут его ответа не дольше wait-ms,
+// затем 409. Ошибки не сохраняются: если первый запрос упал, повтор выполнится заново.
+@Component
+public class IdempotentRequests {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+    public static final String METRIC_NAME = "http.idempotency-keys";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CompletableFuture<StoredResponse>> responses;
+    private final long waitMs;
+
+    public IdempotentRequests(final ObjectMapper objectMapper,
+                              final MeterRegistry meterRegistry,
+                              @Value("${idempotency.max-size:10000}") final long maxSize,
+                              @Value("${idempotency.ttl-minutes:1440}") final long ttlMinutes,
+                              @Value("${idempotency.wait-ms:30000}") final long waitMs) {
+        this.objectMapper = objectMapper;
+        this.waitMs = waitMs;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, METRIC_NAME);
+    }
+
+    // key == null - обычный запрос без сохранения ответа
+    public ResponseEntity<Object> execute(final String endpoint,
+                                          final String key,
+                                          final Object request,
+                                          final HttpStatus status,
+                                          final Supplier<?> action) {
+        if (key == null) {
+            return ResponseEntity.status(status).body(action.get());
+        }
+        final String cacheKey = endpoint + ' ' + currentUser() + ' ' + key;
+        final byte[] fingerprint = sha256(serialize(request));
+        while (true) {
+            final CompletableFuture<StoredResponse> own = new CompletableFuture<>();
+            final CompletableFuture<StoredResponse> first = responses.get(cacheKey, k -> own);
+            if (first == own) {
+                return run(cacheKey, own, fingerprint, status, action).toResponse(false);
+            }
+            final StoredResponse stored = await(first, key);
+            // null - первый запрос упал и ключ освобожден
+            if (stored != null) {
+                if (!Arrays.equals(stored.fingerprint(), fingerprint)) {
+                    throw new IdempotencyKeyReusedException(key);
+                }
+                return stored.toResponse(true);
+            }
+        }
+    }
+
+    private StoredResponse run(final String cacheKey,
+                               final CompletableFuture<StoredResponse> own,
+                               final byte[] fingerprint,
+                               final HttpStatus status,
+                               final Supplier<?> action) {
+        try {
+            final StoredResponse stored = new StoredResponse(fingerprint, status, serialize(action.get()));
+            own.complete(stored);
+            return stored;
+        } catch (RuntimeException | Error e) {
+            responses.asMap().remove(cacheKey, own);
+            own.complete(null);
+            throw e;
+        }
+    }
+
+    private StoredResponse await(final CompletableFuture<StoredResponse> first, final String key) {
+        try {
+            return first.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (ExecutionException e) {
+            // первый запрос завершает future только значением
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private byte[] serialize(final Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String currentUser() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return "";
+        }
+        return authentication.getName();
+    }
+
+    private static byte[] sha256(final byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredResponse(byte[] fingerprint, HttpStatus status, byte[] body) {
+
+        ResponseEntity<Object> toResponse(final boolean replayed) {
+            return ResponseEntity.status(status)
+                    .contentType(APPLICATION_JSON)
+                    .header(REPLAYED, String.valueOf(replayed))
+                    .body(body);
+        }
+    }
+
+}
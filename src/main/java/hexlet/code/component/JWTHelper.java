@@ -1,25 +1,59 @@
 package hexlet.code.component;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Clock;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.impl.DefaultClock;
-import java.util.Date;
-import java.util.Map;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.MissingClaimException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import static io.jsonwebtoken.SignatureAlgorithm.HS256;
-import static io.jsonwebtoken.impl.TextCodec.BASE64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+import static io.jsonwebtoken.Claims.EXPIRATION;
+import static io.jsonwebtoken.Claims.ISSUED_AT;
+import static io.jsonwebtoken.Claims.ISSUER;
+import static io.jsonwebtoken.Claims.NOT_BEFORE;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.SPRING_SECURITY_FORM_USERNAME_KEY;
 
+// HS256 токены в том же формате, что выпускал jjwt 0.9.1:
+// заголовок {"alg":"HS256"}, даты в секундах, base64url без паддинга.
 @Component
 public class JWTHelper {
 
-    private final String secretKey;
+    public static final String USER_ID = "userId";
+
+    private static final String HS256 = "HS256";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 43;
+    private static final long MILLIS_IN_SECOND = 1000L;
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final byte[] HEADER = ENCODER.encode(("{\"alg\":\"" + HS256 + "\"}").getBytes(US_ASCII));
+
     private final String issuer;
     private final Long expirationSec;
     private final Long clockSkewSec;
-    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
 
     public JWTHelper(@Value("${jwt.issuer:task-manager}") final String issuer,
                      @Value("${jwt.expiration-sec:86400}") final Long expirationSec,
@@ -28,36 +62,202 @@ public class JWTHelper {
         this.issuer = issuer;
         this.expirationSec = expirationSec;
         this.clockSkewSec = clockSkewSec;
-        this.secretKey = BASE64.encode(secretKey);
-        this.clock = DefaultClock.INSTANCE;
+        final SecretKeySpec key = new SecretKeySpec(secretKey.getBytes(UTF_8), HMAC_SHA256);
+        this.macs = ThreadLocal.withInitial(() -> initMac(key));
     }
 
     public String expiring(final Map<String, Object> attributes) {
-        return Jwts.builder()
-                .signWith(HS256, secretKey)
-                .setClaims(getClaims(attributes, expirationSec))
-                .compact();
-    }
-
-    public Map<String, Object> verify(final String token) {
-        return Jwts.parser()
-                .requireIssuer(issuer)
-                .setClock(clock)
-                .setAllowedClockSkewSeconds(clockSkewSec)
-                .setSigningKey(secretKey)
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Claims getClaims(final Map<String, Object> attributes, final Long expiresInSec) {
-        final Claims claims = Jwts.claims();
-        claims.setIssuer(issuer);
-        claims.setIssuedAt(clock.now());
-        claims.putAll(attributes);
-        if (expiresInSec > 0) {
-            claims.setExpiration(new Date(System.currentTimeMillis() + expiresInSec * 1000));
+        final byte[] payload = ENCODER.encode(writePayload(attributes));
+        final int signedLength = HEADER.length + 1 + payload.length;
+        final byte[] token = new byte[signedLength + 1 + SIGNATURE_LENGTH];
+
+        System.arraycopy(HEADER, 0, token, 0, HEADER.length);
+        token[HEADER.length] = '.';
+        System.arraycopy(payload, 0, token, HEADER.length + 1, payload.length);
+        token[signedLength] = '.';
+
+        final byte[] signature = ENCODER.encode(sign(token, signedLength));
+        System.arraycopy(signature, 0, token, signedLength + 1, SIGNATURE_LENGTH);
+        return new String(token, US_ASCII);
+    }
+
+    public TokenClaims verify(final String token) {
+        final byte[] ascii = token.getBytes(US_ASCII);
+        final int headerEnd = indexOfPeriod(ascii, 0);
+        final int payloadEnd = headerEnd < 0 ? -1 : indexOfPeriod(ascii, headerEnd + 1);
+        if (payloadEnd < 0 || indexOfPeriod(ascii, payloadEnd + 1) >= 0) {
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters");
         }
+
+        verifyHeader(ascii, headerEnd);
+        verifySignature(ascii, payloadEnd);
+        final TokenClaims claims = readPayload(ascii, headerEnd + 1, payloadEnd);
+        verifyClaims(claims);
         return claims;
     }
 
+    private byte[] writePayload(final Map<String, Object> attributes) {
+        final long nowSec = System.currentTimeMillis() / MILLIS_IN_SECOND;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField(ISSUER, issuer);
+            generator.writeNumberField(ISSUED_AT, nowSec);
+            for (final Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                generator.writeFieldName(attribute.getKey());
+                generator.writeObject(attribute.getValue());
+            }
+            if (expirationSec > 0) {
+                generator.writeNumberField(EXPIRATION, nowSec + expirationSec);
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void verifyHeader(final byte[] token, final int headerEnd) {
+        if (headerEnd == HEADER.length && Arrays.equals(token, 0, headerEnd, HEADER, 0, HEADER.length)) {
+            return;
+        }
+
+        String algorithm = null;
+        try (JsonParser parser = parse(token, 0, headerEnd)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "alg" -> {
+                        algorithm = parser.getValueAsString();
+                    }
+                    case "zip", "crit" -> throw new UnsupportedJwtException("Unsupported JWT header: " + field);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new MalformedJwtException("Unable to read JWT header", e);
+        }
+
+        if (!HS256.equals(algorithm)) {
+            throw new UnsupportedJwtException("Unsupported signature algorithm: " + algorithm);
+        }
+    }
+
+    private void verifySignature(final byte[] token, final int signedLength) {
+        final byte[] expected = ENCODER.encode(sign(token, signedLength));
+        final int offset = signedLength + 1;
+
+        int diff = (token.length - offset) ^ expected.length;
+        for (int i = 0; i < expected.length; i++) {
+            final int index = offset + i;
+            diff |= expected[i] ^ (index < token.length ? token[index] : 0);
+        }
+        if (diff != 0) {
+            throw new SignatureException("JWT signature does not match locally computed signature");
+        }
+    }
+
+    private TokenClaims readPayload(final byte[] token, final int from, final int to) {
+        String tokenIssuer = null;
+        String username = null;
+        Long userId = null;
+        long issuedAt = 0;
+        Long expiration = null;
+        Long notBefore = null;
+
+        try (JsonParser parser = parse(token, from, to)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case ISSUER -> {
+                        tokenIssuer = parser.getValueAsString();
+                    }
+                    case ISSUED_AT -> {
+                        issuedAt = parser.getValueAsLong();
+                    }
+                    case EXPIRATION -> {
+                        expiration = parser.getValueAsLong();
+                    }
+                    case NOT_BEFORE -> {
+                        notBefore = parser.getValueAsLong();
+                    }
+                    case SPRING_SECURITY_FORM_USERNAME_KEY -> {
+                        username = parser.getValueAsString();
+                    }
+                    case USER_ID -> {
+                        userId = parser.getValueAsLong();
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new MalformedJwtException("Unable to read JWT claims", e);
+        }
+
+        final long nowMillis = System.currentTimeMillis();
+        final long skewMillis = clockSkewSec * MILLIS_IN_SECOND;
+        if (notBefore != null && nowMillis + skewMillis < notBefore * MILLIS_IN_SECOND) {
+            throw new PrematureJwtException(null, null, "JWT must not be accepted before " + notBefore);
+        }
+        if (expiration != null && nowMillis - skewMillis > expiration * MILLIS_IN_SECOND) {
+            throw new ExpiredJwtException(null, null, "JWT expired at " + expiration);
+        }
+        return new TokenClaims(tokenIssuer, issuedAt, expiration, username, userId);
+    }
+
+    private void verifyClaims(final TokenClaims claims) {
+        if (claims.issuer() == null) {
+            throw new MissingClaimException(null, null, "Expected " + ISSUER + " claim to be: " + issuer);
+        }
+        if (!issuer.equals(claims.issuer())) {
+            throw new IncorrectClaimException(null, null,
+                    "Expected " + ISSUER + " claim to be: " + issuer + ", but was: " + claims.issuer());
+        }
+    }
+
+    private byte[] sign(final byte[] token, final int length) {
+        final Mac mac = macs.get();
+        mac.update(token, 0, length);
+        return mac.doFinal();
+    }
+
+    private static int indexOfPeriod(final byte[] token, final int from) {
+        for (int i = from; i < token.length; i++) {
+            if (token[i] == '.') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static JsonParser parse(final byte[] token, final int from, final int to) throws IOException {
+        final ByteBuffer decoded;
+        try {
+            decoded = DECODER.decode(ByteBuffer.wrap(token, from, to - from));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid Base64url encoding", e);
+        }
+        return JSON.createParser(decoded.array(), decoded.arrayOffset(), decoded.limit());
+    }
+
+    private static void expectObject(final JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new MalformedJwtException("JWT section is not a JSON object");
+        }
+    }
+
+    private static Mac initMac(final SecretKeySpec key) {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
 }
@@ -0,0 +1,240 @@
+package hexlet.code.component;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.config.datasource.ReadFromPrimary;
+import hexlet.code.dto.TaskLabel;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.model.QTask;
+import hexlet.code.repository.TaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Индекс меток: для каждой метки - сжатое множество id задач с ней (RoaringBitmap).
+// Фильтр GET /tasks "все метки из / любая из / ни одной из" вычисляется в памяти и уходит в БД
+// как task.id in (...) по первичному ключу вместо соединений с tasks_labels.
+// Строится из БД при старте, дальше меняется после коммита каждой записи задачи.
+// Пока индекс не готов или под фильтр подходит больше max-ids задач, фильтр - подзапросы exists.
+// Метрика: tasks.label-index.bytes.
+@Slf4j
+@Component
+public class LabelBitmapIndex {
+
+    private static final QTask TASK = QTask.task;
+    // id задачи хранится в bitmap как беззнаковый int
+    private static final long MAX_TASK_ID = 0xFFFF_FFFFL;
+
+    private final TaskRepository taskRepository;
+    private final int maxIds;
+    // bitmap не потокобезопасны: чтение - под read lock, изменения - под write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, RoaringBitmap> byLabel = new HashMap<>();
+    // события, пришедшие во время перестроения; null - перестроение не идет
+    private List<TaskChangedEvent> pending;
+    private boolean ready;
+
+    public LabelBitmapIndex(final TaskRepository taskRepository,
+                            final MeterRegistry meterRegistry,
+                            @Value("${tasks.label-index.max-ids:10000}") final int maxIds) {
+        this.taskRepository = taskRepository;
+        this.maxIds = maxIds;
+        Gauge.builder("tasks.label-index.bytes", this, LabelBitmapIndex::sizeInBytes)
+                .description("Memory used by label bitmaps")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @ReadFromPrimary
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        try (Stream<TaskLabel> pairs = taskRepository.streamLabelIds()) {
+            rebuild(pairs);
+        }
+    }
+
+    public void rebuild(final Stream<TaskLabel> pairs) {
+        final long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        final Map<Long, RoaringBitmap> built = new HashMap<>();
+        boolean fits = true;
+        for (final Iterator<TaskLabel> it = pairs.iterator(); it.hasNext() && fits;) {
+            final TaskLabel pair = it.next();
+            fits = pair.taskId() <= MAX_TASK_ID;
+            built.computeIfAbsent(pair.labelId(), id -> new RoaringBitmap()).add(pair.taskId().intValue());
+        }
+
+        lock.writeLock().lock();
+        try {
+            // выборка могла как учесть, так и не учесть эти изменения - повторное применение их не портит
+            for (final TaskChangedEvent event : pending) {
+                fits = fits && apply(built, event);
+            }
+            built.values().forEach(RoaringBitmap::runOptimize);
+            byLabel = built;
+            pending = null;
+            ready = fits;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (fits) {
+            log.info("Label index built for {} labels in {} ms", built.size(), (System.nanoTime() - start) / 1_000_000);
+        } else {
+            log.warn("Label index is disabled: task ids do not fit into 32 bits");
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(final TaskChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            if (!apply(byLabel, event)) {
+                ready = false;
+                log.warn("Label index is disabled: task id {} does not fit into 32 bits", event.taskId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Условие на задачи, у которых есть все метки all, хотя бы одна из any и нет ни одной из without;
+    // пустой набор - без ограничения
+    public Predicate filter(final Collection<Long> all, final Collection<Long> any, final Collection<Long> without) {
+        final boolean negated = all.isEmpty() && any.isEmpty();
+        final RoaringBitmap ids;
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return subqueries(all, any, without);
+            }
+            // без all и any - исключаемые задачи, их меньше, чем оставшихся
+            ids = negated ? union(without) : match(all, any, without);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ids.getLongCardinality() > maxIds) {
+            return subqueries(all, any, without);
+        }
+
+        final List<Long> taskIds = new ArrayList<>(ids.getCardinality());
+        ids.forEach((int id) -> taskIds.add(Integer.toUnsignedLong(id)));
+        if (negated) {
+            return taskIds.isEmpty() ? new BooleanBuilder() : TASK.id.notIn(taskIds);
+        }
+        // id не бывает null - пустое множество не пропускает ни одной задачи
+        return taskIds.isEmpty() ? TASK.id.isNull() : TASK.id.in(taskIds);
+    }
+
+    // Хотя бы один из наборов all и any не пуст. Bitmap индекса не меняются, результат - новый
+    private RoaringBitmap match(final Collection<Long> all,
+                                final Collection<Long> any,
+                                final Collection<Long> without) {
+        RoaringBitmap result = null;
+        if (!all.isEmpty()) {
+            final RoaringBitmap[] bitmaps = new RoaringBitmap[all.size()];
+            int i = 0;
+            for (final Long labelId : all) {
+                final RoaringBitmap bitmap = byLabel.get(labelId);
+                if (bitmap == null) {
+                    return new RoaringBitmap();
+                }
+                bitmaps[i++] = bitmap;
+            }
+            result = FastAggregation.and(bitmaps);
+        }
+        if (!any.isEmpty()) {
+            final RoaringBitmap union = union(any);
+            result = result == null ? union : RoaringBitmap.and(result, union);
+        }
+        if (!without.isEmpty()) {
+            result = RoaringBitmap.andNot(result, union(without));
+        }
+        return result;
+    }
+
+    private RoaringBitmap union(final Collection<Long> labelIds) {
+        return FastAggregation.or(labelIds.stream()
+                .map(byLabel::get)
+                .filter(Objects::nonNull)
+                .iterator());
+    }
+
+    private long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return byLabel.values().stream().mapToLong(RoaringBitmap::getLongSizeInBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Метки задачи заменяются метками из after; false - id задачи не помещается в bitmap
+    private static boolean apply(final Map<Long, RoaringBitmap> bitmaps, final TaskChangedEvent event) {
+        if (event.taskId() > MAX_TASK_ID) {
+            return false;
+        }
+        final int taskId = event.taskId().intValue();
+        for (final Long labelId : labelIds(event.before())) {
+            final RoaringBitmap bitmap = bitmaps.get(labelId);
+            if (bitmap != null) {
+                bitmap.remove(taskId);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(labelId);
+                }
+            }
+        }
+        for (final Long labelId : labelIds(event.after())) {
+            bitmaps.computeIfAbsent(labelId, id -> new RoaringBitmap()).add(taskId);
+        }
+        return true;
+    }
+
+    private static Collection<Long> labelIds(final TaskSnapshot task) {
+        return task == null ? List.of() : task.labelIds();
+    }
+
+    private static Predicate subqueries(final Collection<Long> all,
+                                        final Collection<Long> any,
+                                        final Collection<Long> without) {
+        final BooleanBuilder builder = new BooleanBuilder();
+        all.forEach(labelId -> builder.and(TASK.labels.any().id.eq(labelId)));
+        if (!any.isEmpty()) {
+            builder.and(TASK.labels.any().id.in(any));
+        }
+        if (!without.isEmpty()) {
+            builder.andNot(TASK.labels.any().id.in(without));
+        }
+        return builder;
+    }
+
+}
@@ -0,0 +1,43 @@
+package hexlet.code.component;
+
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Проверки владельца для @PreAuthorize: без загрузки сущностей, результат кэшируется на время запроса.
+// Отсутствующая запись - NoSuchElementException (404), а не ошибка вычисления выражения.
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class OwnershipChecker {
+
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
+
+    private final Map<Long, Long> taskAuthors = new HashMap<>();
+    private final Map<Long, Boolean> existingUsers = new HashMap<>();
+
+    public boolean isTaskAuthor(final Long taskId) {
+        final Long authorId = taskAuthors.computeIfAbsent(taskId, id -> taskRepository.findAuthorIdById(id)
+                .orElseThrow(() -> new NoSuchElementException("Task with id " + id + " not found")));
+        return authorId.equals(currentUser.getId());
+    }
+
+    public boolean isCurrentUser(final Long userId) {
+        if (userId.equals(currentUser.getId())) {
+            return true;
+        }
+        if (!existingUsers.computeIfAbsent(userId, userRepository::existsById)) {
+            throw new NoSuchElementException("User with id " + userId + " not found");
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,65 @@
+package hexlet.code.component;
+
+import hexlet.code.config.security.AppUserDetails;
+import hexlet.code.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+// Пересчитывает хеши с устаревшей стоимостью BCrypt после успешного входа,
+// пока у нас еще есть пароль в открытом виде.
+@Slf4j
+@Component
+public class PasswordHashUpgrader {
+
+    private final UserRepository userRepository;
+    private final PasswordHashingExecutor executor;
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+
+    public PasswordHashUpgrader(final UserRepository userRepository,
+                                final PasswordHashingExecutor executor,
+                                @Value("${password-hashing.bcrypt-strength:10}") final int strength) {
+        this.userRepository = userRepository;
+        this.executor = executor;
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+    }
+
+    public boolean isOutdated(final String hash) {
+        return strengthOf(hash) != strength;
+    }
+
+    public void upgrade(final AppUserDetails user, final String rawPassword) {
+        final String outdatedHash = user.getOutdatedHash();
+        if (outdatedHash == null || rawPassword == null) {
+            return;
+        }
+
+        final boolean accepted = executor.submit(() -> {
+            final int updated = userRepository.updatePassword(
+                    user.getUsername(),
+                    outdatedHash,
+                    encoder.encode(rawPassword)
+            );
+            log.debug("Rehashed password of '{}' with strength {}: {}", user.getUsername(), strength, updated > 0);
+        });
+        if (!accepted) {
+            log.debug("Password hashing pool is busy, rehash of '{}' postponed", user.getUsername());
+        }
+    }
+
+    // $2a$10$... -> 10
+    public static int strengthOf(final String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash, 4, 6, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package hexlet.code.component;
+
+import hexlet.code.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Отдельный пул для BCrypt, чтобы всплеск логинов не занимал все потоки Tomcat.
+// Метрики: executor{name=password-hashing} - время хеширования, executor.queued - глубина очереди.
+@Slf4j
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    public static final String METRIC_NAME = "password-hashing";
+
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final long retryAfterSec;
+
+    public PasswordHashingExecutor(final MeterRegistry meterRegistry,
+                                   @Value("${password-hashing.pool-size:0}") final int poolSize,
+                                   @Value("${password-hashing.queue-capacity:64}") final int queueCapacity,
+                                   @Value("${password-hashing.retry-after-sec:1}") final long retryAfterSec) {
+        final int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(METRIC_NAME + "-");
+        threadFactory.setDaemon(true);
+        this.pool = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, METRIC_NAME);
+        this.retryAfterSec = retryAfterSec;
+    }
+
+    public <T> T execute(final Supplier<T> task) {
+        try {
+            return executor.submit(task::get).get();
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingRejectedException(retryAfterSec);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean submit(final Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Background password task failed", e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+}
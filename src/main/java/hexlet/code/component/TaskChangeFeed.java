@@ -0,0 +1,78 @@
+package hexlet.code.component;
+
+import hexlet.code.dto.TaskChanges;
+import hexlet.code.dto.TaskChangesToken;
+import hexlet.code.dto.TaskView;
+import hexlet.code.exception.ChangesExpiredException;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static java.time.temporal.ChronoUnit.MILLIS;
+
+// Изменения задач после водяного знака: измененные строки по индексу (updatedAt, id) и следы удаленных.
+// updatedAt ставится до коммита, поэтому последние settle-ms не отдаются: транзакция, начатая раньше,
+// могла еще не закоммититься, и клиент с более поздним знаком ее бы пропустил.
+// Смена имени статуса, пользователя или метки задачи не меняет - их клиент синхронизирует отдельно.
+@Slf4j
+@Component
+public class TaskChangeFeed {
+
+    private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository tombstoneRepository;
+    private final Duration settle;
+    private final Duration retention;
+
+    public TaskChangeFeed(final TaskRepository taskRepository,
+                          final TaskTombstoneRepository tombstoneRepository,
+                          @Value("${tasks.changes.settle-ms:2000}") final long settleMs,
+                          @Value("${tasks.changes.tombstone-retention-days:30}") final long retentionDays) {
+        this.taskRepository = taskRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.settle = Duration.ofMillis(settleMs);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    // since == null - первая синхронизация: все задачи, удалять клиенту нечего
+    @Transactional(readOnly = true)
+    public TaskChanges changesSince(final TaskChangesToken since, final int limit) {
+        final Instant now = Instant.now();
+        final Instant horizon = now.minus(retention);
+        if (since != null && since.updatedAt().isBefore(horizon)) {
+            throw new ChangesExpiredException(since.updatedAt(), horizon);
+        }
+
+        // updatedAt хранится с точностью до миллисекунды, поэтому текущая, еще не закончившаяся, не отдается
+        final Instant until = now.minus(settle).truncatedTo(MILLIS).minusMillis(1);
+        // лишняя запись только для того, чтобы узнать, есть ли еще изменения
+        final List<TaskView> tasks = taskRepository.findChangedViews(since, until, limit + 1);
+        final boolean hasMore = tasks.size() > limit;
+        final List<TaskView> changed = hasMore ? tasks.subList(0, limit) : tasks;
+        final TaskChangesToken next = hasMore
+                ? TaskChangesToken.after(changed.get(limit - 1))
+                : TaskChangesToken.upTo(until);
+
+        // следы берутся до того же момента, что и строки: на границе страницы удаление с тем же временем
+        // попадет в этот ответ, а в следующий уже нет
+        final List<Long> deleted = since == null
+                ? List.of()
+                : tombstoneRepository.findDeletedIds(Date.from(since.updatedAt()), Date.from(next.updatedAt()));
+        return new TaskChanges(changed, deleted, next.encode(), hasMore);
+    }
+
+    @Scheduled(cron = "${tasks.changes.purge-cron:0 30 3 * * *}")
+    public void purgeTombstones() {
+        final int purged = tombstoneRepository.deleteOlderThan(Date.from(Instant.now().minus(retention)));
+        log.info("Purged {} task tombstones older than {}", purged, retention);
+    }
+
+}
@@ -0,0 +1,242 @@
+package hexlet.code.component;
+
+import hexlet.code.config.datasource.ReadFromPrimary;
+import hexlet.code.config.datasource.ReadReplicaRoutingDataSource;
+import hexlet.code.dto.IdCount;
+import hexlet.code.dto.TaskStats;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.event.TasksBulkUpdatedEvent;
+import hexlet.code.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Число задач по статусам, исполнителям и меткам без обращения к БД.
+// Меняется после коммита каждой записи задачи и периодически сверяется с БД.
+@Slf4j
+@Component
+public class TaskCounters {
+
+    private static final int RECONCILE_ATTEMPTS = 3;
+    private static final long RECONCILE_RETRY_PAUSE_MS = 50;
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    // Запись событий - под read lock (параллельно, счетчики - LongAdder), подмена при сверке - под write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Транзакции, опубликовавшие изменение задачи: всего и еще не завершенные.
+    // Выборка сверки точна, только если за время ее чтения ни одна такая транзакция не коммитилась
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicBoolean bulkUpdated = new AtomicBoolean();
+    private volatile Counts counts = new Counts();
+
+    public TaskCounters(final TaskRepository taskRepository, final PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Дельта применяется после коммита, но транзакция учитывается уже при публикации события
+    @EventListener
+    public void onTaskChanged(final TaskChangedEvent event) {
+        final boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        lock.readLock().lock();
+        try {
+            started.incrementAndGet();
+            if (inTransaction) {
+                inFlight.incrementAndGet();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!inTransaction) {
+            apply(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(final int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(event);
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    // Массовое изменение не несет дельт: счетчики сверяются с БД в фоне, а не в потоке запроса
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksBulkUpdated(final TasksBulkUpdatedEvent event) {
+        bulkUpdated.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.counters.bulk-reconcile-delay-ms:1000}")
+    public void reconcileAfterBulkUpdates() {
+        if (!bulkUpdated.getAndSet(false)) {
+            return;
+        }
+        final Boolean reconciled = ReadReplicaRoutingDataSource.readFromPrimary(
+                () -> readOnlyTransaction.execute(status -> tryReconcile()));
+        if (!Boolean.TRUE.equals(reconciled)) {
+            bulkUpdated.set(true);
+        }
+    }
+
+    @ReadFromPrimary
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    @Scheduled(initialDelayString = "${tasks.counters.reconcile-interval-ms:300000}",
+            fixedDelayString = "${tasks.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        tryReconcile();
+    }
+
+    private boolean tryReconcile() {
+        for (int attempt = 0; attempt < RECONCILE_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                pause();
+            }
+            final long startedBefore = startedIfQuiet();
+            if (startedBefore < 0) {
+                continue;
+            }
+            final Counts actual = load();
+            lock.writeLock().lock();
+            try {
+                // пока считали, началась транзакция с изменением - неизвестно, учтено ли оно в выборке
+                if (started.get() != startedBefore) {
+                    continue;
+                }
+                final TaskStats expected = actual.toStats();
+                final TaskStats current = counts.toStats();
+                if (!expected.equals(current)) {
+                    log.info("Task counters drifted from database: {}, replaced with {}", current, expected);
+                }
+                counts = actual;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.debug("Task counters were not reconciled: tasks keep changing");
+        return false;
+    }
+
+    // -1, если есть незавершенные транзакции: их дельты придут после подмены и учлись бы дважды
+    private long startedIfQuiet() {
+        lock.writeLock().lock();
+        try {
+            return inFlight.get() == 0 ? started.get() : -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(final TaskChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            counts.add(event.before(), -1);
+            counts.add(event.after(), 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(RECONCILE_RETRY_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public TaskStats snapshot() {
+        return counts.toStats();
+    }
+
+    private Counts load() {
+        final Counts loaded = new Counts();
+        loaded.total.add(taskRepository.count());
+        fill(loaded.byStatus, taskRepository.countByStatus());
+        fill(loaded.byExecutor, taskRepository.countByExecutor());
+        fill(loaded.byLabel, taskRepository.countByLabel());
+        final long assigned = loaded.byExecutor.values().stream().mapToLong(LongAdder::sum).sum();
+        loaded.unassigned.add(loaded.total.sum() - assigned);
+        return loaded;
+    }
+
+    private static void fill(final Map<Long, LongAdder> counters, final List<IdCount> rows) {
+        for (final IdCount row : rows) {
+            counters.computeIfAbsent(row.id(), id -> new LongAdder()).add(row.count());
+        }
+    }
+
+    private static Map<Long, Long> nonZero(final Map<Long, LongAdder> counters) {
+        final Map<Long, Long> result = new TreeMap<>();
+        counters.forEach((id, counter) -> {
+            final long value = counter.sum();
+            if (value != 0) {
+                result.put(id, value);
+            }
+        });
+        return result;
+    }
+
+    private static final class Counts {
+
+        private final LongAdder total = new LongAdder();
+        private final LongAdder unassigned = new LongAdder();
+        private final Map<Long, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final Map<Long, LongAdder> byExecutor = new ConcurrentHashMap<>();
+        private final Map<Long, LongAdder> byLabel = new ConcurrentHashMap<>();
+
+        void add(final TaskSnapshot task, final int delta) {
+            if (task == null) {
+                return;
+            }
+            total.add(delta);
+            increment(byStatus, task.taskStatusId(), delta);
+            if (task.executorId() == null) {
+                unassigned.add(delta);
+            } else {
+                increment(byExecutor, task.executorId(), delta);
+            }
+            for (final Long labelId : task.labelIds()) {
+                increment(byLabel, labelId, delta);
+            }
+        }
+
+        TaskStats toStats() {
+            return new TaskStats(total.sum(), unassigned.sum(), nonZero(byStatus), nonZero(byExecutor),
+                    nonZero(byLabel));
+        }
+
+        private static void increment(final Map<Long, LongAdder> counters, final Long id, final int delta) {
+            counters.computeIfAbsent(id, key -> new LongAdder()).add(delta);
+        }
+    }
+
+}
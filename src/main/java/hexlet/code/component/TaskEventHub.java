@@ -0,0 +1,214 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.event.TasksBulkUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+// Рассылка изменений задач подписчикам GET /tasks/events после коммита.
+// Событие сериализуется в JSON один раз и кладется в ограниченную очередь каждого подписчика без ожидания;
+// пишут в сокеты потоки отдельного пула, не более одного на подписчика. Кто не успевает
+// и переполнил очередь, отключается - клиент переподключается и догоняет через /tasks/changes.
+// Метрики: tasks.events.subscribers, tasks.events.published, tasks.events.dropped, executor{name=task-events}.
+@Slf4j
+@Component
+public class TaskEventHub implements DisposableBean {
+
+    public static final String METRIC_NAME = "task-events";
+    private static final Message HEARTBEAT = new Message(null, "heartbeat");
+
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Counter published;
+    private final Counter dropped;
+    private final int bufferSize;
+    private final long timeoutMs;
+
+    public TaskEventHub(final ObjectMapper objectMapper,
+                        final MeterRegistry meterRegistry,
+                        @Value("${tasks.events.pool-size:4}") final int poolSize,
+                        @Value("${tasks.events.buffer-size:256}") final int bufferSize,
+                        @Value("${tasks.events.timeout-ms:1800000}") final long timeoutMs) {
+        this.objectMapper = objectMapper;
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(METRIC_NAME + "-");
+        threadFactory.setDaemon(true);
+        // в очереди пула не больше одной задачи на подписчика, поэтому она не ограничена
+        this.pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(poolSize, threadFactory);
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, METRIC_NAME);
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        Gauge.builder("tasks.events.subscribers", subscribers, Set::size)
+                .description("Open task event streams")
+                .register(meterRegistry);
+        this.published = Counter.builder("tasks.events.published")
+                .description("Task events offered to subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("tasks.events.dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+    }
+
+    // null в фильтре - любое значение
+    public SseEmitter subscribe(final Long taskStatusId, final Long executorId) {
+        final SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(emitter, taskStatusId, executorId);
+        return emitter;
+    }
+
+    void register(final SseEmitter emitter, final Long taskStatusId, final Long executorId) {
+        final Subscriber subscriber = new Subscriber(emitter, taskStatusId, executorId, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(final TaskChangedEvent event) {
+        final String type = event.before() == null ? "created" : event.after() == null ? "deleted" : "updated";
+        final TaskSnapshot task = event.after() == null ? event.before() : event.after();
+        final Message message = message(type, task);
+        for (final Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event.before()) || subscriber.accepts(event.after())) {
+                offer(subscriber, message);
+            }
+        }
+        published.increment();
+    }
+
+    // Какие задачи изменились, неизвестно - событие получают все, клиент догоняет через /tasks/changes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksBulkUpdated(final TasksBulkUpdatedEvent event) {
+        final Message message = message("bulk-updated", event);
+        subscribers.forEach(subscriber -> offer(subscriber, message));
+        published.increment();
+    }
+
+    // Держит соединение через прокси и выявляет отключившихся клиентов
+    @Scheduled(initialDelayString = "${tasks.events.heartbeat-ms:15000}",
+            fixedDelayString = "${tasks.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> offer(subscriber, HEARTBEAT));
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        pool.shutdownNow();
+    }
+
+    private Message message(final String type, final Object data) {
+        try {
+            return new Message(type, objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void offer(final Subscriber subscriber, final Message message) {
+        if (!subscriber.buffer.offer(message)) {
+            // complete() ждет монитор emitter, который держит пишущий поток, - закрывает сам этот поток
+            if (subscriber.closed.compareAndSet(false, true)) {
+                subscribers.remove(subscriber);
+                dropped.increment();
+                log.debug("Task event subscriber dropped: buffer of {} events is full", bufferSize);
+            }
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(final Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(final Subscriber subscriber) {
+        do {
+            Message message;
+            while (!subscriber.closed.get() && (message = subscriber.buffer.poll()) != null) {
+                try {
+                    subscriber.emitter.send(message.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    subscriber.closed.set(true);
+                    subscribers.remove(subscriber);
+                }
+            }
+            if (subscriber.closed.get()) {
+                subscriber.buffer.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+            subscriber.draining.set(false);
+            // событие могло прийти между последним poll и сбросом флага
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    // SseEventBuilder при отправке меняется, поэтому в очередях - готовый JSON, а builder создается на отправку
+    private record Message(String name, String data) {
+
+        SseEmitter.SseEventBuilder toEvent() {
+            return name == null
+                    ? SseEmitter.event().comment(data)
+                    : SseEmitter.event().name(name).data(data, APPLICATION_JSON);
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long taskStatusId;
+        private final Long executorId;
+        private final Queue<Message> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(final SseEmitter emitter, final Long taskStatusId, final Long executorId, final int bufferSize) {
+            this.emitter = emitter;
+            this.taskStatusId = taskStatusId;
+            this.executorId = executorId;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        // Задача, ушедшая из фильтра, тоже интересна: клиент уберет ее у себя
+        boolean accepts(final TaskSnapshot task) {
+            return task != null
+                    && (taskStatusId == null || taskStatusId.equals(task.taskStatusId()))
+                    && (executorId == null || Objects.equals(executorId, task.executorId()));
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+package hexlet.code.component;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.event.TaskSnapshot;
+import org.hibernate.Hibernate;
+
+import javax.persistence.Entity;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Каноническая форма фильтра, который строит @QuerydslPredicate.
+// key одинаков для фильтров, отличающихся только порядком параметров; сущности в нем - по id.
+// Если фильтр - конъюнкция простых условий на поля задачи, по срезу задачи можно точно сказать,
+// проходит ли она фильтр; иначе фильтр считается затронутым любым изменением задач.
+final class TaskFilter {
+
+    private static final Map<String, Function<TaskSnapshot, Object>> FIELDS = Map.of(
+            "task.id", TaskSnapshot::id,
+            "task.name", TaskSnapshot::name,
+            "task.description", TaskSnapshot::description,
+            "task.taskStatus", TaskSnapshot::taskStatusId,
+            "task.taskStatus.id", TaskSnapshot::taskStatusId,
+            "task.author", TaskSnapshot::authorId,
+            "task.author.id", TaskSnapshot::authorId,
+            "task.executor", TaskSnapshot::executorId,
+            "task.executor.id", TaskSnapshot::executorId
+    );
+    // Массовое изменение меняет только статус и исполнителя
+    private static final Set<String> BULK_UPDATED_FIELDS = Set.of(
+            "task.taskStatus", "task.taskStatus.id", "task.executor", "task.executor.id"
+    );
+    private static final String LABELS = "task.labels";
+
+    private final String key;
+    private final List<Condition> conditions;
+
+    private TaskFilter(final String key, final List<Condition> conditions) {
+        this.key = key;
+        this.conditions = conditions;
+    }
+
+    static TaskFilter of(final Predicate predicate, final PersistenceUnitUtil persistenceUtil) {
+        final Expression<?> root = predicate instanceof BooleanBuilder builder ? builder.getValue() : predicate;
+        if (root == null) {
+            return new TaskFilter("", List.of());
+        }
+        final Canonicalizer canonicalizer = new Canonicalizer(persistenceUtil);
+        return new TaskFilter(canonicalizer.render(root), canonicalizer.conditions(root));
+    }
+
+    String key() {
+        return key;
+    }
+
+    // Список id фильтра меняется, только если задача вошла в него или вышла:
+    // createdAt и id не меняются, поэтому порядок оставшихся задач прежний
+    boolean affectedBy(final TaskSnapshot before, final TaskSnapshot after) {
+        if (conditions == null) {
+            return true;
+        }
+        return matches(before) != matches(after);
+    }
+
+    boolean affectedByBulkUpdate() {
+        return conditions == null || conditions.stream().anyMatch(c -> BULK_UPDATED_FIELDS.contains(c.path()));
+    }
+
+    private boolean matches(final TaskSnapshot task) {
+        return task != null && conditions.stream().allMatch(condition -> condition.test(task));
+    }
+
+    // path - одно из FIELDS или LABELS; values - допустимые значения (id для ссылок, null - нет ссылки)
+    private record Condition(String path, Set<Object> values) {
+
+        boolean test(final TaskSnapshot task) {
+            if (LABELS.equals(path)) {
+                return task.labelIds().containsAll(values);
+            }
+            return values.contains(FIELDS.get(path).apply(task));
+        }
+    }
+
+    private static final class Canonicalizer {
+
+        private final PersistenceUnitUtil persistenceUtil;
+
+        Canonicalizer(final PersistenceUnitUtil persistenceUtil) {
+            this.persistenceUtil = persistenceUtil;
+        }
+
+        String render(final Expression<?> expression) {
+            if (expression instanceof Operation<?> operation) {
+                final List<String> args = new ArrayList<>();
+                for (final Expression<?> arg : flatten(operation)) {
+                    args.add(render(arg));
+                }
+                // от порядка параметров запроса зависит только порядок операндов AND/OR
+                if (operation.getOperator() == Ops.AND || operation.getOperator() == Ops.OR) {
+                    args.sort(null);
+                }
+                return operation.getOperator() + args.toString();
+            }
+            if (expression instanceof Constant<?> constant) {
+                return renderValue(constant.getConstant());
+            }
+            if (expression instanceof Path<?> path) {
+                return path.toString();
+            }
+            return expression.getClass().getSimpleName() + "{" + expression + "}";
+        }
+
+        // null - фильтр нельзя проверить по срезу задачи
+        List<Condition> conditions(final Expression<?> root) {
+            final List<Condition> conditions = new ArrayList<>();
+            final List<Expression<?>> terms = root instanceof Operation<?> and && and.getOperator() == Ops.AND
+                    ? flatten(and)
+                    : List.of(root);
+            for (final Expression<?> term : terms) {
+                final Condition condition = term instanceof Operation<?> operation ? condition(operation) : null;
+                if (condition == null) {
+                    return null;
+                }
+                conditions.add(condition);
+            }
+            return conditions;
+        }
+
+        private Condition condition(final Operation<?> operation) {
+            final List<Expression<?>> args = operation.getArgs();
+            if (operation.getOperator() == Ops.IS_NULL && isField(args.get(0))) {
+                final Set<Object> values = new HashSet<>();
+                values.add(null);
+                return new Condition(args.get(0).toString(), values);
+            }
+            if (args.size() != 2) {
+                return null;
+            }
+            if (operation.getOperator() == Ops.EQ && isField(args.get(0)) && args.get(1) instanceof Constant<?> value) {
+                return new Condition(args.get(0).toString(), values(Collections.singleton(value.getConstant())));
+            }
+            if (operation.getOperator() == Ops.IN && isField(args.get(0))
+                    && args.get(1) instanceof Constant<?> value && value.getConstant() instanceof Collection<?> items) {
+                return new Condition(args.get(0).toString(), values(items));
+            }
+            // [метка] in task.labels - у задачи есть эта метка; по параметру на метку
+            if (operation.getOperator() == Ops.IN && LABELS.equals(args.get(1).toString())
+                    && args.get(0) instanceof Constant<?> value && value.getConstant() instanceof Collection<?> items
+                    && items.size() == 1) {
+                return new Condition(LABELS, values(items));
+            }
+            return null;
+        }
+
+        private static boolean isField(final Expression<?> expression) {
+            return expression instanceof Path<?> && FIELDS.containsKey(expression.toString());
+        }
+
+        // Сущности - их id, числа - long, как id в срезе задачи
+        private Set<Object> values(final Collection<?> items) {
+            final Set<Object> values = new HashSet<>();
+            for (final Object item : items) {
+                if (isEntity(item)) {
+                    values.add(persistenceUtil.getIdentifier(item));
+                } else if (item instanceof Number number) {
+                    values.add(number.longValue());
+                } else {
+                    values.add(item);
+                }
+            }
+            return values;
+        }
+
+        private String renderValue(final Object value) {
+            if (value == null) {
+                return "null";
+            }
+            if (isEntity(value)) {
+                return Hibernate.getClass(value).getSimpleName() + "#" + persistenceUtil.getIdentifier(value);
+            }
+            if (value instanceof Collection<?> items) {
+                return items.stream().map(this::renderValue).sorted().collect(Collectors.joining(",", "[", "]"));
+            }
+            if (value instanceof String string) {
+                return "'" + string.replace("'", "''") + "'";
+            }
+            return value.getClass().getSimpleName() + ":" + value;
+        }
+
+        private static boolean isEntity(final Object value) {
+            return value != null && Hibernate.getClass(value).isAnnotationPresent(Entity.class);
+        }
+
+        // a && (b && c) -> [a, b, c]
+        private static List<Expression<?>> flatten(final Operation<?> operation) {
+            final List<Expression<?>> args = new ArrayList<>();
+            for (final Expression<?> arg : operation.getArgs()) {
+                if (arg instanceof Operation<?> nested && nested.getOperator() == operation.getOperator()
+                        && (operation.getOperator() == Ops.AND || operation.getOperator() == Ops.OR)) {
+                    args.addAll(flatten(nested));
+                } else {
+                    args.add(arg);
+                }
+            }
+            return args;
+        }
+    }
+
+}
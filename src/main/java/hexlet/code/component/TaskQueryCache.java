@@ -0,0 +1,142 @@
+package hexlet.code.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.dto.TaskCursor;
+import hexlet.code.dto.TaskView;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TasksBulkUpdatedEvent;
+import hexlet.code.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Кэш id задач для фильтров GET /tasks: ключ - каноническая форма фильтра, значение - позиции
+// (createdAt, id) всех подходящих задач. Страница по любому курсору берется из них, сами задачи
+// читаются по первичному ключу. В кэш попадает фильтр, запрошенный второй раз: разовые фильтры
+// (например, по имени) его не вытесняют и стоят, как без кэша. Фильтры, под которые подходит
+// больше max-ids-per-filter задач, не кэшируются.
+// После коммита изменения задачи удаляются только записи фильтров, в которые задача вошла или из которых вышла.
+// Метрики: cache.*{cache=tasks.query-cache} (в т.ч. hit ratio), tasks.query-cache.invalidations.
+@Component
+public class TaskQueryCache {
+
+    public static final String METRIC_NAME = "tasks.query-cache";
+    private static final Comparator<TaskCursor> ORDER = Comparator.comparing(TaskCursor::createdAt)
+            .thenComparing(TaskCursor::id);
+
+    private final TaskRepository taskRepository;
+    private final PersistenceUnitUtil persistenceUtil;
+    private final Cache<String, Entry> cache;
+    private final Cache<String, Boolean> requestedOnce;
+    private final Counter invalidations;
+    private final AtomicLong writes = new AtomicLong();
+    private final int maxIdsPerFilter;
+
+    public TaskQueryCache(final TaskRepository taskRepository,
+                          final EntityManagerFactory entityManagerFactory,
+                          final MeterRegistry meterRegistry,
+                          @Value("${tasks.query-cache.max-ids:200000}") final long maxIds,
+                          @Value("${tasks.query-cache.max-ids-per-filter:10000}") final int maxIdsPerFilter) {
+        this.taskRepository = taskRepository;
+        this.persistenceUtil = entityManagerFactory.getPersistenceUnitUtil();
+        this.maxIdsPerFilter = maxIdsPerFilter;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxIds)
+                .weigher((String key, Entry entry) -> entry.size() + 1)
+                .recordStats()
+                .build();
+        this.requestedOnce = Caffeine.newBuilder()
+                .maximumSize(maxIds)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, METRIC_NAME);
+        this.invalidations = Counter.builder(METRIC_NAME + ".invalidations")
+                .description("Cached task filters dropped after task changes")
+                .register(meterRegistry);
+    }
+
+    // То же, что TaskRepository.findViewPage
+    public List<TaskView> findViewPage(final Predicate predicate, final TaskCursor after, final int limit) {
+        final TaskFilter filter = TaskFilter.of(predicate, persistenceUtil);
+        Entry entry = cache.getIfPresent(filter.key());
+        if (entry == null) {
+            if (requestedOnce.asMap().putIfAbsent(filter.key(), Boolean.TRUE) == null) {
+                return taskRepository.findViewPage(predicate, after, limit);
+            }
+            entry = load(filter, predicate);
+        }
+        if (entry.positions() == null) {
+            return taskRepository.findViewPage(predicate, after, limit);
+        }
+
+        final TaskCursor[] positions = entry.positions();
+        final int from = after == null ? 0 : firstAfter(positions, after);
+        final List<Long> ids = Arrays.stream(positions, from, Math.min(positions.length, from + limit))
+                .map(TaskCursor::id)
+                .toList();
+        return taskRepository.findViewsByIds(ids);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(final TaskChangedEvent event) {
+        writes.incrementAndGet();
+        cache.asMap().values().removeIf(entry -> counted(entry.filter().affectedBy(event.before(), event.after())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksBulkUpdated(final TasksBulkUpdatedEvent event) {
+        writes.incrementAndGet();
+        cache.asMap().values().removeIf(entry -> counted(entry.filter().affectedByBulkUpdate()));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        requestedOnce.invalidateAll();
+    }
+
+    private Entry load(final TaskFilter filter, final Predicate predicate) {
+        final long writesBefore = writes.get();
+        final List<TaskCursor> positions = taskRepository.findPositions(predicate, maxIdsPerFilter + 1);
+        final Entry entry = new Entry(filter, positions.size() > maxIdsPerFilter
+                ? null
+                : positions.toArray(TaskCursor[]::new));
+        cache.put(filter.key(), entry);
+        // изменение могло закоммититься во время чтения, а его событие - пройти до put
+        if (writes.get() != writesBefore) {
+            cache.invalidate(filter.key());
+        }
+        return entry;
+    }
+
+    private boolean counted(final boolean affected) {
+        if (affected) {
+            invalidations.increment();
+        }
+        return affected;
+    }
+
+    private static int firstAfter(final TaskCursor[] positions, final TaskCursor after) {
+        final int found = Arrays.binarySearch(positions, after, ORDER);
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+
+    // positions == null - подходящих задач слишком много, страницы читаются из БД
+    private record Entry(TaskFilter filter, TaskCursor[] positions) {
+
+        int size() {
+            return positions == null ? 0 : positions.length;
+        }
+    }
+
+}
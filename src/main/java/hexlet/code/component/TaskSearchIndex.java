@@ -0,0 +1,264 @@
+package hexlet.code.component;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Инвертированный индекс по name и description задач в памяти процесса.
+// Списки вхождений - отсортированные по id массивы примитивов, без объекта на каждую пару (слово, задача).
+// Поиск: все слова запроса должны встретиться, порядок - по BM25.
+@Component
+public class TaskSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private Map<String, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long documents;
+    private long totalLength;
+
+    // oldText - индексированный ранее текст задачи (null, если ее не было), newText - текущий (null - удалена)
+    public void update(final long id, final String oldText, final String newText) {
+        final Map<String, Integer> oldTerms = oldText == null ? Map.of() : termFrequencies(oldText);
+        final Map<String, Integer> newTerms = newText == null ? Map.of() : termFrequencies(newText);
+        lock.writeLock().lock();
+        try {
+            remove(id, oldTerms);
+            add(id, newTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Текст задачи, попавшей в индекс под одним из possibleTexts (или не попавшей), становится newText
+    public void replace(final long id, final Collection<String> possibleTexts, final String newText) {
+        final Map<String, Integer> oldTerms = new HashMap<>();
+        possibleTexts.forEach(text -> oldTerms.putAll(termFrequencies(text)));
+        final Map<String, Integer> newTerms = newText == null ? Map.of() : termFrequencies(newText);
+        lock.writeLock().lock();
+        try {
+            remove(id, oldTerms);
+            add(id, newTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Подменяет содержимое индекса построенным отдельно; built после этого не используется
+    public void replaceWith(final TaskSearchIndex built) {
+        lock.writeLock().lock();
+        try {
+            postings = built.postings;
+            documents = built.documents;
+            totalLength = built.totalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // id задач в порядке убывания релевантности
+    public List<Long> search(final String query, final int limit) {
+        final String[] terms = termFrequencies(query).keySet().toArray(String[]::new);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            final Postings[] lists = new Postings[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                lists[i] = postings.get(terms[i]);
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            // идем по самому короткому списку, остальные проверяем бинарным поиском
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            return topHits(lists, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> topHits(final Postings[] lists, final int limit) {
+        final double averageLength = (double) totalLength / documents;
+        final double[] idf = new double[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            idf[i] = Math.log(1 + (documents - lists[i].size + 0.5) / (lists[i].size + 0.5));
+        }
+
+        final PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+        final Postings shortest = lists[0];
+        for (int position = 0; position < shortest.size; position++) {
+            final long id = shortest.ids[position];
+            double score = shortest.score(position, idf[0], averageLength);
+            int matched = 1;
+            for (; matched < lists.length; matched++) {
+                final int other = lists[matched].indexOf(id);
+                if (other < 0) {
+                    break;
+                }
+                score += lists[matched].score(other, idf[matched], averageLength);
+            }
+            if (matched == lists.length && (top.size() < limit || score > top.peek().score())) {
+                top.offer(new Hit(id, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        final List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().id());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private void add(final long id, final Map<String, Integer> terms) {
+        if (terms.isEmpty()) {
+            return;
+        }
+        final int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        int previousLength = -1;
+        for (final Map.Entry<String, Integer> term : terms.entrySet()) {
+            previousLength = Math.max(previousLength,
+                    postings.computeIfAbsent(term.getKey(), key -> new Postings()).put(id, term.getValue(), length));
+        }
+        // задача уже была в индексе, например событие пришло во время перестроения
+        if (previousLength >= 0) {
+            totalLength -= previousLength;
+        } else {
+            documents++;
+        }
+        totalLength += length;
+    }
+
+    private void remove(final long id, final Map<String, Integer> terms) {
+        int length = -1;
+        for (final String term : terms.keySet()) {
+            final Postings list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            final int removed = list.remove(id);
+            if (removed >= 0) {
+                length = removed;
+            }
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        if (length >= 0) {
+            documents--;
+            totalLength -= length;
+        }
+    }
+
+    // Слова - непрерывные последовательности букв и цифр в нижнем регистре
+    static Map<String, Integer> termFrequencies(final String text) {
+        final Map<String, Integer> terms = new LinkedHashMap<>();
+        final StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            final char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.append(c);
+                }
+            } else if (!token.isEmpty()) {
+                terms.merge(token.toString().toLowerCase(Locale.ROOT), 1, Integer::sum);
+                token.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private record Hit(long id, double score) {
+
+        // при равных баллах выше задача с меньшим id
+        private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+                .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+    }
+
+    private static final class Postings {
+
+        private long[] ids = new long[2];
+        private int[] frequencies = new int[2];
+        private int[] lengths = new int[2];
+        private int size;
+
+        int indexOf(final long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        // id задач растут, поэтому обычно это добавление в конец; возвращает прежнюю длину документа или -1
+        int put(final long id, final int frequency, final int length) {
+            int position = indexOf(id);
+            final int previousLength = position < 0 ? -1 : lengths[position];
+            if (position < 0) {
+                position = -position - 1;
+                if (size == ids.length) {
+                    final int capacity = size + (size >> 1) + 1;
+                    ids = Arrays.copyOf(ids, capacity);
+                    frequencies = Arrays.copyOf(frequencies, capacity);
+                    lengths = Arrays.copyOf(lengths, capacity);
+                }
+                System.arraycopy(ids, position, ids, position + 1, size - position);
+                System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+                System.arraycopy(lengths, position, lengths, position + 1, size - position);
+                size++;
+            }
+            ids[position] = id;
+            frequencies[position] = frequency;
+            lengths[position] = length;
+            return previousLength;
+        }
+
+        // длина удаленного документа или -1
+        int remove(final long id) {
+            final int position = indexOf(id);
+            if (position < 0) {
+                return -1;
+            }
+            final int length = lengths[position];
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            System.arraycopy(lengths, position + 1, lengths, position, size - position - 1);
+            size--;
+            return length;
+        }
+
+        double score(final int position, final double idf, final double averageLength) {
+            final int frequency = frequencies[position];
+            final double norm = K1 * (1 - B + B * lengths[position] / averageLength);
+            return idf * frequency * (K1 + 1) / (frequency + norm);
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package hexlet.code.component;
+
+import hexlet.code.config.datasource.ReadFromPrimary;
+import hexlet.code.dto.TaskText;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Индекс строится из БД при старте и дальше меняется только после коммита изменений задач.
+// Перестроение идет в отдельный индекс, текущий до подмены продолжает отвечать на поиск и получать события
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskSearchIndexSync {
+
+    private final TaskRepository taskRepository;
+    private final TaskSearchIndex index;
+    private final Lock lock = new ReentrantLock();
+    // события, пришедшие во время перестроения; null - перестроение не идет
+    private List<TaskChangedEvent> pending;
+
+    @ReadFromPrimary
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        final long start = System.nanoTime();
+        lock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        final TaskSearchIndex built = new TaskSearchIndex();
+        final AtomicLong count = new AtomicLong();
+        try (Stream<TaskText> texts = taskRepository.streamTexts()) {
+            texts.forEach(task -> {
+                built.update(task.id(), null, textOf(task.name(), task.description()));
+                count.incrementAndGet();
+            });
+        } catch (RuntimeException e) {
+            stopBuffering();
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            replay(built, pending);
+            index.replaceWith(built);
+            pending = null;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Search index built from {} tasks in {} ms", count.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(final TaskChangedEvent event) {
+        lock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            index.update(event.taskId(), textOf(event.before()), textOf(event.after()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Выборка могла прочитать задачу в любом состоянии из цепочки ее событий, поэтому из построенного индекса
+    // убираются все эти варианты текста, а остается только последний
+    private static void replay(final TaskSearchIndex built, final List<TaskChangedEvent> events) {
+        final Map<Long, List<TaskChangedEvent>> byTask = new LinkedHashMap<>();
+        events.forEach(event -> byTask.computeIfAbsent(event.taskId(), id -> new ArrayList<>()).add(event));
+        byTask.forEach((id, changes) -> {
+            final List<String> possibleTexts = new ArrayList<>();
+            possibleTexts.add(textOf(changes.get(0).before()));
+            changes.forEach(change -> possibleTexts.add(textOf(change.after())));
+            possibleTexts.removeIf(Objects::isNull);
+            built.replace(id, possibleTexts, textOf(changes.get(changes.size() - 1).after()));
+        });
+    }
+
+    private void stopBuffering() {
+        lock.lock();
+        try {
+            pending = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String textOf(final TaskSnapshot task) {
+        return task == null ? null : textOf(task.name(), task.description());
+    }
+
+    private static String textOf(final String name, final String description) {
+        return description == null ? name : name + "\n" + description;
+    }
+
+}
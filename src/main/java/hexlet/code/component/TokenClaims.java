@@ -0,0 +1,4 @@
+package hexlet.code.component;
+
+public record TokenClaims(String issuer, long issuedAt, Long expiration, String username, Long userId) {
+}
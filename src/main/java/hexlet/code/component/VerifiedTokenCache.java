@@ -0,0 +1,76 @@
+package hexlet.code.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+// Кэш проверенных токенов перед JWTHelper.verify.
+// Ключ - SHA-256 от токена, запись живет до exp токена.
+@Component
+public class VerifiedTokenCache {
+
+    public static final String METRIC_NAME = "jwt.verified-tokens";
+
+    private final JWTHelper jwtHelper;
+    private final Cache<String, TokenClaims> cache;
+
+    public VerifiedTokenCache(final JWTHelper jwtHelper,
+                              final MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:10000}") final long maxSize) {
+        this.jwtHelper = jwtHelper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiration())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, METRIC_NAME);
+    }
+
+    public TokenClaims verify(final String token) {
+        return cache.get(digest(token), key -> jwtHelper.verify(token));
+    }
+
+    private static String digest(final String token) {
+        try {
+            final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class UntilTokenExpiration implements Expiry<String, TokenClaims> {
+
+        @Override
+        public long expireAfterCreate(final String key, final TokenClaims claims, final long currentTime) {
+            if (claims.expiration() == null) {
+                return Long.MAX_VALUE;
+            }
+            final long ttlMillis = TimeUnit.SECONDS.toMillis(claims.expiration()) - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(final String key, final TokenClaims claims,
+                                      final long currentTime, final long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(final String key, final TokenClaims claims,
+                                    final long currentTime, final long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+}
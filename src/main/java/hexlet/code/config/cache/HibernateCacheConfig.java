@@ -0,0 +1,99 @@
+package hexlet.code.config.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import hexlet.code.model.Label;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.ToLongFunction;
+
+// Кэш второго уровня Hibernate в памяти процесса (Caffeine через JCache): статусы, метки, пользователи
+// и результаты findByName / findByEmail. Записи через EntityManager и bulk-запросы сбрасывают кэш сами.
+// Записи живут не дольше expire-minutes: при чтении из отстающей реплики в кэш может попасть старая версия.
+// Метрики: hibernate.cache.hit.ratio по регионам, счетчики попаданий - hibernate.second.level.cache.requests
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final List<Class<?>> CACHED_ENTITIES = List.of(TaskStatus.class, Label.class, User.class);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${second-level-cache.max-size:10000}") final long maxSize,
+            @Value("${second-level-cache.query-max-size:1000}") final long queryMaxSize,
+            @Value("${second-level-cache.expire-minutes:10}") final long expireMinutes) {
+        final CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        final OptionalLong expireNanos = OptionalLong.of(Duration.ofMinutes(expireMinutes).toNanos());
+        for (final Class<?> entity : CACHED_ENTITIES) {
+            cacheManager.createCache(entity.getName(), region(maxSize, expireNanos));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queryMaxSize, expireNanos));
+        // время последней записи в каждую таблицу; вытеснение отсюда вернуло бы устаревшие результаты запросов
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    // Регион для новой @Cache сущности нужно добавить в CACHED_ENTITIES, иначе приложение не стартует
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(final CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY,
+                    MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheHitRatio(final EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (final Class<?> entity : CACHED_ENTITIES) {
+                final String region = entity.getName();
+                hitRatio(region, statistics, s -> s.getDomainDataRegionStatistics(region).getHitCount(),
+                        s -> s.getDomainDataRegionStatistics(region).getMissCount())
+                        .register(registry);
+            }
+            hitRatio(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, statistics,
+                    Statistics::getQueryCacheHitCount, Statistics::getQueryCacheMissCount)
+                    .register(registry);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(final long maxSize, final OptionalLong expireNanos) {
+        final CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(expireNanos);
+        return configuration;
+    }
+
+    // NaN, пока к региону не было обращений
+    private static Gauge.Builder<Statistics> hitRatio(final String region,
+                                                      final Statistics statistics,
+                                                      final ToLongFunction<Statistics> hits,
+                                                      final ToLongFunction<Statistics> misses) {
+        return Gauge.builder("hibernate.cache.hit.ratio", statistics, s -> {
+            final long hit = hits.applyAsLong(s);
+            final long total = hit + misses.applyAsLong(s);
+            return total == 0 ? Double.NaN : (double) hit / total;
+        }).tag("region", region).description("Second-level cache hit ratio");
+    }
+
+}
@@ -0,0 +1,24 @@
+package hexlet.code.config.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// Без реплики флаг никто не читает, поэтому аспект не зависит от spring.datasource.replica.enabled
+@Aspect
+@Component
+public class ReadFromPrimaryAspect {
+
+    @Around("@annotation(hexlet.code.config.datasource.ReadFromPrimary)"
+            + " || @within(hexlet.code.config.datasource.ReadFromPrimary)")
+    public Object readFromPrimary(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final boolean previous = ReadReplicaRoutingDataSource.setReadFromPrimary(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadReplicaRoutingDataSource.setReadFromPrimary(previous);
+        }
+    }
+
+}
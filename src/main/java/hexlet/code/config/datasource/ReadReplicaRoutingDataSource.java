@@ -0,0 +1,68 @@
+package hexlet.code.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+// Read-only транзакции - в реплику, остальное - в основную БД.
+// Ключ выбирается при получении соединения, поэтому источник оборачивается в LazyConnectionDataSourceProxy:
+// иначе соединение берется в начале транзакции, до того, как известно, что она read-only.
+// Чтения, которые не должны отставать от записей (перестроение индексов и счетчиков из БД, которые дальше
+// меняются событиями после коммита), помечаются @ReadFromPrimary и остаются read-only
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> FROM_PRIMARY = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final RecentWriters recentWriters;
+
+    public ReadReplicaRoutingDataSource(final RecentWriters recentWriters) {
+        this.recentWriters = recentWriters;
+    }
+
+    public static <T> T readFromPrimary(final Supplier<T> action) {
+        final boolean previous = setReadFromPrimary(true);
+        try {
+            return action.get();
+        } finally {
+            setReadFromPrimary(previous);
+        }
+    }
+
+    // Возвращает прежнее значение, чтобы вложенные вызовы его восстанавливали
+    static boolean setReadFromPrimary(final boolean fromPrimary) {
+        final boolean previous = FROM_PRIMARY.get();
+        if (fromPrimary) {
+            FROM_PRIMARY.set(Boolean.TRUE);
+        } else {
+            FROM_PRIMARY.remove();
+        }
+        return previous;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.markCurrentUser();
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+        if (FROM_PRIMARY.get() || recentWriters.isCurrentUserRecentWriter()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+}
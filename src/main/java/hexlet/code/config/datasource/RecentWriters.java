@@ -0,0 +1,46 @@
+package hexlet.code.config.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+// Пользователи, закоммитившие запись не раньше window назад. Реплика может еще не получить их изменения,
+// поэтому их чтения идут в основную БД. Анонимные запросы не отслеживаются
+public final class RecentWriters {
+
+    private static final int MAX_USERS = 100_000;
+
+    private final Cache<String, Boolean> writers;
+
+    public RecentWriters(final Duration window) {
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(MAX_USERS)
+                .build();
+    }
+
+    public void markCurrentUser() {
+        final String user = currentUser();
+        if (user != null) {
+            writers.put(user, Boolean.TRUE);
+        }
+    }
+
+    public boolean isCurrentUserRecentWriter() {
+        final String user = currentUser();
+        return user != null && writers.getIfPresent(user) != null;
+    }
+
+    private static String currentUser() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+}
@@ -0,0 +1,27 @@
+package hexlet.code.config.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+@Getter
+public class AppUserDetails extends User {
+
+    private final Long id;
+
+    // Хеш, сохраненный с другой стоимостью BCrypt; null, если пересчет не нужен
+    private final String outdatedHash;
+
+    public AppUserDetails(final Long id,
+                          final String username,
+                          final String password,
+                          final Collection<? extends GrantedAuthority> authorities,
+                          final String outdatedHash) {
+        super(username, password, authorities);
+        this.id = id;
+        this.outdatedHash = outdatedHash;
+    }
+
+}
@@ -0,0 +1,13 @@
+package hexlet.code.config.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+// Принципал из JWT: id есть только у токенов, выпущенных с claim userId
+public record AuthenticatedUser(Long id, String email) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+}
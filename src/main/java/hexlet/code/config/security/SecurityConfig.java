@@ -1,6 +1,8 @@
 package hexlet.code.config.security;
 
 import hexlet.code.component.JWTHelper;
+import hexlet.code.component.PasswordHashUpgrader;
+import hexlet.code.component.VerifiedTokenCache;
 import hexlet.code.filter.JWTAuthenticationFilter;
 import hexlet.code.filter.JWTAuthorizationFilter;
 
@@ -15,6 +17,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
@@ -26,6 +29,7 @@ import java.util.List;
 import static hexlet.code.controller.UserController.USER_CONTROLLER_PATH;
 import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 @Configuration
 @EnableWebSecurity
@@ -33,6 +37,7 @@ import static org.springframework.http.HttpMethod.POST;
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     public static final String LOGIN = "/login";
+    public static final String ACTUATOR = "/actuator";
 
     public static final List<GrantedAuthority> DEFAULT_AUTHORITIES = List.of(new SimpleGrantedAuthority("USER"));
 
@@ -41,20 +46,31 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
     private final JWTHelper jwtHelper;
+    private final VerifiedTokenCache verifiedTokens;
+    private final PasswordHashUpgrader passwordHashUpgrader;
 
     public SecurityConfig(@Value("${base-url}") final String baseUrl,
                           final UserDetailsService userDetailsService,
-                          final PasswordEncoder passwordEncoder, final JWTHelper jwtHelper) {
+                          final PasswordEncoder passwordEncoder, final JWTHelper jwtHelper,
+                          final VerifiedTokenCache verifiedTokens,
+                          final PasswordHashUpgrader passwordHashUpgrader) {
         this.loginRequest = new AntPathRequestMatcher(baseUrl + LOGIN, POST.toString());
         this.publicUrls = new OrRequestMatcher(
                 loginRequest,
                 new AntPathRequestMatcher(baseUrl + USER_CONTROLLER_PATH, POST.toString()),
                 new AntPathRequestMatcher(baseUrl + USER_CONTROLLER_PATH, GET.toString()),
-                new NegatedRequestMatcher(new AntPathRequestMatcher(baseUrl + "/**"))
+                new AntPathRequestMatcher(ACTUATOR + "/health/**", GET.toString()),
+                // метрики раскрывают внутреннее состояние (кэши, пулы, время по URI) - только с токеном
+                new NegatedRequestMatcher(new OrRequestMatcher(
+                        new AntPathRequestMatcher(baseUrl + "/**"),
+                        new AntPathRequestMatcher(ACTUATOR + "/**")
+                ))
         );
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
         this.jwtHelper = jwtHelper;
+        this.verifiedTokens = verifiedTokens;
+        this.passwordHashUpgrader = passwordHashUpgrader;
     }
 
     @Override
@@ -69,12 +85,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         final var authenticationFilter = new JWTAuthenticationFilter(
                 authenticationManagerBean(),
                 loginRequest,
-                jwtHelper
+                jwtHelper,
+                passwordHashUpgrader
         );
 
         final var authorizationFilter = new JWTAuthorizationFilter(
                 publicUrls,
-                jwtHelper
+                verifiedTokens
         );
 
         http.csrf().disable()
@@ -82,6 +99,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .requestMatchers(publicUrls).permitAll()
                 .anyRequest().authenticated()
                 .and()
+                .exceptionHandling().authenticationEntryPoint(new HttpStatusEntryPoint(UNAUTHORIZED))
+                .and()
                 .addFilter(authenticationFilter)
                 .addFilterBefore(authorizationFilter, UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement().disable()
@@ -0,0 +1,83 @@
+package hexlet.code.controller;
+
+import hexlet.code.dto.Versioned;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+// Сильные ETag из версий строк, без сериализации ответа.
+// Одна запись: "<version>" или "<version>-<хеш версий вложенных>", список - "<хеш id и версий всех записей>".
+final class EntityTags {
+
+    private static final int HASH_BYTES = 8;
+    private static final String ANY = "*";
+
+    private EntityTags() {
+    }
+
+    static String of(final Versioned entity) {
+        final List<Versioned> nested = entity.nested().toList();
+        if (nested.isEmpty()) {
+            return quote(String.valueOf(entity.version()));
+        }
+        final MessageDigest digest = sha256();
+        nested.forEach(view -> update(digest, view));
+        return quote(entity.version() + "-" + hex(digest));
+    }
+
+    static String ofList(final Collection<? extends Versioned> entities) {
+        final MessageDigest digest = sha256();
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(entities.size()).array());
+        for (final Versioned entity : entities) {
+            update(digest, entity);
+            entity.nested().forEach(view -> update(digest, view));
+        }
+        return quote(hex(digest));
+    }
+
+    // Версия из If-Match для PUT: null - заголовка нет или "*", -1 - ETag не наш и совпасть не может
+    static Long expectedVersion(final String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        final String tag = ifMatch.trim();
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return -1L;
+        }
+        final String value = tag.substring(1, tag.length() - 1);
+        final int dash = value.indexOf('-');
+        try {
+            return Long.parseLong(dash < 0 ? value : value.substring(0, dash));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static void update(final MessageDigest digest, final Versioned view) {
+        digest.update(ByteBuffer.allocate(2 * Long.BYTES)
+                .putLong(view.id())
+                .putLong(view.version() == null ? 0 : view.version())
+                .array());
+    }
+
+    private static String hex(final MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest(), 0, HASH_BYTES);
+    }
+
+    private static String quote(final String value) {
+        return '"' + value + '"';
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package hexlet.code.controller;
 
 import hexlet.code.dto.LabelDto;
+import hexlet.code.dto.LabelView;
 import hexlet.code.model.Label;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.service.LabelService;
@@ -9,12 +10,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -24,6 +27,7 @@ import javax.validation.Valid;
 import java.util.List;
 
 import static hexlet.code.controller.LabelController.LABEL_CONTROLLER_PATH;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
 
 @RestController
@@ -52,20 +56,21 @@ public class LabelController {
     @Operation(summary = "Get label by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Label found"),
+            @ApiResponse(responseCode = "304", description = "Not changed since If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "Label not found")
     })
     @GetMapping(ID)
-    public Label getLabelById(@PathVariable Long id) {
-        return labelRepository.findById(id).get();
+    public ResponseEntity<LabelView> getLabelById(@PathVariable Long id) {
+        final LabelView label = labelRepository.findViewById(id).get();
+        return ResponseEntity.ok().eTag(EntityTags.of(label)).body(label);
     }
 
     @Operation(summary = "Get list of all labels")
     @ApiResponse(responseCode = "200", description = "List of labels is loaded")
     @GetMapping
-    public List<Label> getAllLabels() {
-        return labelRepository.findAll()
-                .stream()
-                .toList();
+    public ResponseEntity<List<LabelView>> getAllLabels() {
+        final List<LabelView> labels = labelRepository.findAllViews();
+        return ResponseEntity.ok().eTag(EntityTags.ofList(labels)).body(labels);
     }
 
     @Operation(summary = "Update label data by id")
@@ -73,10 +78,12 @@ public class LabelController {
             @ApiResponse(responseCode = "200", description = "Label data updated"),
             @ApiResponse(responseCode = "422", description = "Invalid update data"),
             @ApiResponse(responseCode = "404", description = "Label with that id not found"),
+            @ApiResponse(responseCode = "412", description = "Label has changed since If-Match version")
     })
     @PutMapping(ID)
-    public Label updateLabel(@PathVariable Long id, @RequestBody @Valid LabelDto labelDto) {
-        return labelService.updateLabel(id, labelDto);
+    public Label updateLabel(@PathVariable Long id, @RequestBody @Valid LabelDto labelDto,
+                             @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return labelService.updateLabel(id, labelDto, EntityTags.expectedVersion(ifMatch));
     }
 
     @Operation(summary = "Delete label by id")
@@ -1,75 +1,276 @@
 package hexlet.code.controller;
 
+import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
+import hexlet.code.component.IdempotentRequests;
+import hexlet.code.component.LabelBitmapIndex;
+import hexlet.code.component.TaskChangeFeed;
+import hexlet.code.component.TaskCounters;
+import hexlet.code.component.TaskEventHub;
+import hexlet.code.component.TaskQueryCache;
+import hexlet.code.dto.TaskCursor;
+import hexlet.code.dto.TaskBulkResult;
+import hexlet.code.dto.TaskBulkUpdateDto;
+import hexlet.code.dto.TaskBulkUpdateResult;
+import hexlet.code.dto.TaskChanges;
+import hexlet.code.dto.TaskChangesToken;
 import hexlet.code.dto.TaskDto;
+import hexlet.code.dto.TaskImportStatus;
+import hexlet.code.dto.TaskStats;
+import hexlet.code.dto.TaskView;
+import hexlet.code.exception.TooManyItemsException;
 import hexlet.code.model.Task;
 import hexlet.code.repository.TaskRepository;
+import hexlet.code.service.TaskImportService;
 import hexlet.code.service.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.querydsl.binding.QuerydslPredicate;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
+import static hexlet.code.component.IdempotentRequests.IDEMPOTENCY_KEY;
 import static hexlet.code.controller.TaskController.TASK_CONTROLLER_PATH;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 
 @RestController
-@AllArgsConstructor
+@RequiredArgsConstructor
 @SecurityRequirement(name = "jwtIn")
 @RequestMapping("${base-url}" + TASK_CONTROLLER_PATH)
 public class TaskController {
 
     public static final String TASK_CONTROLLER_PATH = "/tasks";
     public static final String ID = "/{id}";
-    private static final String ONLY_AUTHOR_BY_ID = """
-            @taskRepository.findById(#id).get().getAuthor().getEmail() == authentication.getName()
-        """;
+    public static final String EXPORT = "/export";
+    public static final String BULK = "/bulk";
+    public static final String SEARCH = "/search";
+    public static final String STATS = "/stats";
+    public static final String CHANGES = "/changes";
+    public static final String EVENTS = "/events";
+    public static final String IMPORTS = "/imports";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final String ONLY_AUTHOR_BY_ID = "@ownershipChecker.isTaskAuthor(#id)";
 
     private final TaskRepository taskRepository;
     private final TaskService taskService;
+    private final TaskCounters taskCounters;
+    private final TaskChangeFeed taskChangeFeed;
+    private final TaskEventHub taskEventHub;
+    private final TaskQueryCache taskQueryCache;
+    private final LabelBitmapIndex labelBitmapIndex;
+    private final TaskImportService taskImportService;
+    private final IdempotentRequests idempotentRequests;
 
-    @Operation(summary = "Create new task")
+    @Value("${tasks.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${tasks.bulk.max-size:1000}")
+    private int maxBulkSize;
+
+    @Operation(summary = "Create new task",
+            description = "A retry with the same Idempotency-Key returns the stored response of the first request")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Task created"),
-            @ApiResponse(responseCode = "422", description = "Invalid data")
+            @ApiResponse(responseCode = "409", description = "Request with the same Idempotency-Key is in progress"),
+            @ApiResponse(responseCode = "422", description = "Invalid data or Idempotency-Key reused with other data")
     })
     @PostMapping
-    @ResponseStatus(CREATED)
-    public Task createTask(@RequestBody @Valid final TaskDto taskDto) {
-        return taskService.createNewTask(taskDto);
+    public ResponseEntity<Object> createTask(
+            @RequestBody @Valid final TaskDto taskDto,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) final String idempotencyKey) {
+        return idempotentRequests.execute(TASK_CONTROLLER_PATH, idempotencyKey, taskDto, CREATED,
+                () -> taskService.createNewTask(taskDto));
+    }
+
+    @Operation(summary = "Create many tasks at once",
+            description = "Invalid items are reported in the result and do not abort the rest")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result for every item, in request order"),
+            @ApiResponse(responseCode = "413", description = "Too many items")
+    })
+    @PostMapping(BULK)
+    public List<TaskBulkResult> createTasks(@RequestBody final List<TaskDto> taskDtos) {
+        if (taskDtos.size() > maxBulkSize) {
+            throw new TooManyItemsException(maxBulkSize);
+        }
+        return taskService.createTasks(taskDtos);
+    }
+
+    @Operation(summary = "Change status and/or executor of many tasks at once",
+            description = "Tasks are selected by the same filters as the task list and optional ids; "
+                    + "only tasks of the current user are changed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Number of changed tasks"),
+            @ApiResponse(responseCode = "422", description = "Nothing to change or unknown status/executor")
+    })
+    @PatchMapping(BULK)
+    public TaskBulkUpdateResult updateTasks(@QuerydslPredicate(root = Task.class) Predicate predicate,
+                                            @RequestBody @Valid final TaskBulkUpdateDto bulkUpdateDto) {
+        return new TaskBulkUpdateResult(taskService.updateTasks(predicate, bulkUpdateDto));
     }
 
     @Operation(summary = "Get task by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Task found"),
+            @ApiResponse(responseCode = "304", description = "Not changed since If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "Task not found")
     })
     @GetMapping(ID)
-    public Task getTaskById(@PathVariable final Long id) {
-        return taskRepository.findById(id).get();
+    public ResponseEntity<TaskView> getTaskById(@PathVariable final Long id) {
+        final TaskView task = taskRepository.findViewById(id).get();
+        return ResponseEntity.ok().eTag(EntityTags.of(task)).body(task);
     }
 
-    @Operation(summary = "Get list of all tasks")
-    @ApiResponse(responseCode = "200", description = "List of users is loaded")
+    @Operation(summary = "Get page of tasks ordered by creation time",
+            description = "Next page cursor is returned in " + NEXT_CURSOR + " header. "
+                    + "allLabels, anyLabels and withoutLabels select tasks having all, any or none of the labels")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of tasks is loaded"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
     @GetMapping
-    public List<Task> getAllTasks(@QuerydslPredicate(root = Task.class) Predicate predicate) {
-        return (List<Task>) taskRepository.findAll(predicate);
+    public ResponseEntity<List<TaskView>> getAllTasks(@QuerydslPredicate(root = Task.class) Predicate predicate,
+                                                  @RequestParam(required = false) final String cursor,
+                                                  @RequestParam(required = false) final Integer size,
+                                                  @RequestParam(defaultValue = "") final Set<Long> allLabels,
+                                                  @RequestParam(defaultValue = "") final Set<Long> anyLabels,
+                                                  @RequestParam(defaultValue = "") final Set<Long> withoutLabels) {
+        final int limit = size == null ? maxPageSize : Math.max(1, Math.min(size, maxPageSize));
+        final TaskCursor after = cursor == null ? null : TaskCursor.decode(cursor);
+        // лишняя запись только для того, чтобы узнать, есть ли следующая страница
+        final List<TaskView> tasks = allLabels.isEmpty() && anyLabels.isEmpty() && withoutLabels.isEmpty()
+                ? taskQueryCache.findViewPage(predicate, after, limit + 1)
+                // id задач из индекса меток меняются с каждой записью, такие фильтры не кэшируются
+                : taskRepository.findViewPage(
+                        new BooleanBuilder(predicate).and(labelBitmapIndex.filter(allLabels, anyLabels, withoutLabels)),
+                        after, limit + 1);
+        if (tasks.size() <= limit) {
+            return ResponseEntity.ok().eTag(EntityTags.ofList(tasks)).body(tasks);
+        }
+
+        final List<TaskView> page = tasks.subList(0, limit);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.ofList(page))
+                .header(NEXT_CURSOR, TaskCursor.after(page.get(limit - 1)).encode())
+                .body(page);
+    }
+
+    @Operation(summary = "Search tasks by words in name and description",
+            description = "Tasks containing all words of the query, most relevant first")
+    @ApiResponse(responseCode = "200", description = "Found tasks")
+    @GetMapping(SEARCH)
+    public List<TaskView> searchTasks(@RequestParam final String q,
+                                      @RequestParam(required = false) final Integer limit) {
+        return taskService.searchTasks(q, limit == null ? maxPageSize : Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    @Operation(summary = "Get number of tasks per status, executor and label",
+            description = "Counters are kept in memory and periodically reconciled with the database")
+    @ApiResponse(responseCode = "200", description = "Task counters")
+    @GetMapping(STATS)
+    public TaskStats getTaskStats() {
+        return taskCounters.snapshot();
+    }
+
+    @Operation(summary = "Get tasks changed and deleted since a watermark",
+            description = "Without since returns all tasks; pass next from the response as since of the next call")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes after the watermark"),
+            @ApiResponse(responseCode = "400", description = "Invalid watermark"),
+            @ApiResponse(responseCode = "410", description = "Watermark is too old, reload all tasks")
+    })
+    @GetMapping(CHANGES)
+    public TaskChanges getTaskChanges(@RequestParam(required = false) final String since) {
+        return taskChangeFeed.changesSince(since == null ? null : TaskChangesToken.decode(since), maxPageSize);
+    }
+
+    @Operation(summary = "Subscribe to task changes",
+            description = "Server-sent events created, updated, deleted (task ids only) and bulk-updated. "
+                    + "A task leaving the filter is sent too. Slow clients are disconnected; "
+                    + "after reconnecting catch up with " + CHANGES)
+    @ApiResponse(responseCode = "200", description = "Event stream")
+    @GetMapping(path = EVENTS, produces = TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToTaskEvents(@RequestParam(required = false) final Long taskStatusId,
+                                            @RequestParam(required = false) final Long executorId) {
+        return taskEventHub.subscribe(taskStatusId, executorId);
+    }
+
+    @Operation(summary = "Export all matching tasks",
+            description = "JSON array or NDJSON depending on Accept header")
+    @ApiResponse(responseCode = "200", description = "Tasks are streamed")
+    @GetMapping(path = EXPORT, produces = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public void exportTasks(@QuerydslPredicate(root = Task.class) Predicate predicate,
+                            final HttpServletRequest request,
+                            final HttpServletResponse response) throws IOException {
+        final boolean ndjson = MediaType.parseMediaTypes(request.getHeader(ACCEPT)).stream()
+                .anyMatch(APPLICATION_NDJSON::equalsTypeAndSubtype);
+        response.setContentType(ndjson ? APPLICATION_NDJSON_VALUE : APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(UTF_8.name());
+        taskService.exportTasks(predicate, ndjson, response.getOutputStream());
+    }
+
+    @Operation(summary = "Import tasks from CSV or NDJSON",
+            description = "The body is read as a stream and may be compressed (Content-Encoding: gzip). "
+                    + "Statuses, labels and executors are referenced by name and email. "
+                    + "Tasks are saved in chunks; progress is available from GET " + IMPORTS + " while importing")
+    @ApiResponse(responseCode = "200", description = "Import is over, see state, counters and row errors")
+    @PostMapping(path = IMPORTS, consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE})
+    public TaskImportStatus importTasks(final HttpServletRequest request) throws IOException {
+        final boolean ndjson = APPLICATION_NDJSON.equalsTypeAndSubtype(
+                MediaType.parseMediaType(request.getContentType()));
+        final boolean gzip = "gzip".equalsIgnoreCase(request.getHeader(CONTENT_ENCODING));
+        return taskImportService.importTasks(request.getInputStream(), ndjson, gzip);
+    }
+
+    @Operation(summary = "Get imports of the current user, running and recently finished")
+    @ApiResponse(responseCode = "200", description = "Imports, newest first")
+    @GetMapping(IMPORTS)
+    public List<TaskImportStatus> getImports() {
+        return taskImportService.getImports();
+    }
+
+    @Operation(summary = "Get progress of an import")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import progress and row errors"),
+            @ApiResponse(responseCode = "404", description = "Import not found")
+    })
+    @GetMapping(IMPORTS + ID)
+    public TaskImportStatus getImport(@PathVariable final long id) {
+        return taskImportService.getImport(id);
     }
 
     @Operation(summary = "Update task by id")
@@ -77,11 +278,13 @@ public class TaskController {
             @ApiResponse(responseCode = "200", description = "Task data updated"),
             @ApiResponse(responseCode = "422", description = "Invalid update data"),
             @ApiResponse(responseCode = "404", description = "Task with that id not found"),
-            @ApiResponse(responseCode = "403", description = "Incorrect owner trying updated data")
+            @ApiResponse(responseCode = "403", description = "Incorrect owner trying updated data"),
+            @ApiResponse(responseCode = "412", description = "Task has changed since If-Match version")
     })
     @PutMapping(ID)
-    public Task updateTask(@PathVariable final Long id, @RequestBody @Valid final TaskDto taskDto) {
-        return taskService.updateTask(id, taskDto);
+    public Task updateTask(@PathVariable final Long id, @RequestBody @Valid final TaskDto taskDto,
+                           @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        return taskService.updateTask(id, taskDto, EntityTags.expectedVersion(ifMatch));
     }
 
     @Operation(summary = "Delete task by id")
@@ -93,7 +296,7 @@ public class TaskController {
     @DeleteMapping(ID)
     @PreAuthorize(ONLY_AUTHOR_BY_ID)
     public void deleteTask(@PathVariable final Long id) {
-        taskRepository.deleteById(id);
+        taskService.deleteTask(id);
     }
 
 }
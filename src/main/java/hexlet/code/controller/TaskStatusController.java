@@ -1,6 +1,7 @@
 package hexlet.code.controller;
 
 import hexlet.code.dto.TaskStatusDto;
+import hexlet.code.dto.TaskStatusView;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.service.TaskStatusService;
@@ -9,12 +10,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -24,6 +27,7 @@ import javax.validation.Valid;
 import java.util.List;
 
 import static hexlet.code.controller.TaskStatusController.STATUS_CONTROLLER_PATH;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
 
 @RestController
@@ -51,20 +55,21 @@ public class TaskStatusController {
     @Operation(summary = "Get status by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Status found"),
+            @ApiResponse(responseCode = "304", description = "Not changed since If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "Status not found")
     })
     @GetMapping(ID)
-    public TaskStatus getStatusById(@PathVariable final long id) {
-        return taskStatusRepository.findById(id).get();
+    public ResponseEntity<TaskStatusView> getStatusById(@PathVariable final long id) {
+        final TaskStatusView status = taskStatusRepository.findViewById(id).get();
+        return ResponseEntity.ok().eTag(EntityTags.of(status)).body(status);
     }
 
     @Operation(summary = "Get list of all status")
     @ApiResponse(responseCode = "200", description = "List of status is loaded")
     @GetMapping
-    public List<TaskStatus> getAllStatus() {
-        return taskStatusRepository.findAll()
-                .stream()
-                .toList();
+    public ResponseEntity<List<TaskStatusView>> getAllStatus() {
+        final List<TaskStatusView> statuses = taskStatusRepository.findAllViews();
+        return ResponseEntity.ok().eTag(EntityTags.ofList(statuses)).body(statuses);
     }
 
     @Operation(summary = "Update status data by id")
@@ -72,10 +77,12 @@ public class TaskStatusController {
             @ApiResponse(responseCode = "200", description = "Status data updated"),
             @ApiResponse(responseCode = "422", description = "Invalid update data"),
             @ApiResponse(responseCode = "404", description = "Status with that id not found"),
+            @ApiResponse(responseCode = "412", description = "Status has changed since If-Match version")
     })
     @PutMapping(ID)
-    public TaskStatus updateStatus(@PathVariable final long id, @RequestBody @Valid final TaskStatusDto statusDto) {
-        return taskStatusService.updateTaskStatus(id, statusDto);
+    public TaskStatus updateStatus(@PathVariable final long id, @RequestBody @Valid final TaskStatusDto statusDto,
+                                   @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        return taskStatusService.updateTaskStatus(id, statusDto, EntityTags.expectedVersion(ifMatch));
     }
 
     @Operation(summary = "Delete status by id")
@@ -1,6 +1,8 @@
 package hexlet.code.controller;
 
+import hexlet.code.component.IdempotentRequests;
 import hexlet.code.dto.UserDto;
+import hexlet.code.dto.UserView;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.service.UserService;
@@ -9,6 +11,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,14 +19,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
 import java.util.List;
 
+import static hexlet.code.component.IdempotentRequests.IDEMPOTENCY_KEY;
 import static hexlet.code.controller.UserController.USER_CONTROLLER_PATH;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
 
 @RestController
@@ -33,41 +38,45 @@ public class UserController {
 
     public static final String USER_CONTROLLER_PATH = "/users";
     public static final String ID = "/{id}";
-    private static final String ONLY_OWNER_BY_ID = """
-            @userRepository.findById(#id).get().getEmail() == authentication.getName()
-        """;
+    private static final String ONLY_OWNER_BY_ID = "@ownershipChecker.isCurrentUser(#id)";
 
     private final UserRepository userRepository;
     private final UserService userService;
+    private final IdempotentRequests idempotentRequests;
 
-    @Operation(summary = "Create new user")
+    @Operation(summary = "Create new user",
+            description = "A retry with the same Idempotency-Key returns the stored response of the first request")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "User created"),
-            @ApiResponse(responseCode = "422", description = "Invalid data")
+            @ApiResponse(responseCode = "409", description = "Request with the same Idempotency-Key is in progress"),
+            @ApiResponse(responseCode = "422", description = "Invalid data or Idempotency-Key reused with other data")
     })
     @PostMapping
-    @ResponseStatus(CREATED)
-    public User registerNewUser(@RequestBody @Valid final UserDto userDto) {
-        return userService.createNewUser(userDto);
+    public ResponseEntity<Object> registerNewUser(
+            @RequestBody @Valid final UserDto userDto,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) final String idempotencyKey) {
+        return idempotentRequests.execute(USER_CONTROLLER_PATH, idempotencyKey, userDto, CREATED,
+                () -> userService.createNewUser(userDto));
     }
 
     @Operation(summary = "Get user by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User found"),
+            @ApiResponse(responseCode = "304", description = "Not changed since If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "User not found")
     })
     @GetMapping(ID)
-    public User getUserById(@PathVariable final long id) {
-        return userRepository.findById(id).get();
+    public ResponseEntity<UserView> getUserById(@PathVariable final long id) {
+        final UserView user = userRepository.findViewById(id).get();
+        return ResponseEntity.ok().eTag(EntityTags.of(user)).body(user);
     }
 
     @Operation(summary = "Get list of all users")
     @ApiResponse(responseCode = "200", description = "List of users is loaded")
     @GetMapping
-    public List<User> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .toList();
+    public ResponseEntity<List<UserView>> getAllUsers() {
+        final List<UserView> users = userRepository.findAllViews();
+        return ResponseEntity.ok().eTag(EntityTags.ofList(users)).body(users);
     }
 
     @Operation(summary = "Update user data by id")
@@ -75,13 +84,15 @@ public class UserController {
             @ApiResponse(responseCode = "200", description = "User data updated"),
             @ApiResponse(responseCode = "422", description = "Invalid update data"),
             @ApiResponse(responseCode = "404", description = "User with that id not found"),
-            @ApiResponse(responseCode = "403", description = "Incorrect owner trying updated data")
+            @ApiResponse(responseCode = "403", description = "Incorrect owner trying updated data"),
+            @ApiResponse(responseCode = "412", description = "User has changed since If-Match version")
     })
     @SecurityRequirement(name = "jwtIn")
     @PutMapping(ID)
     @PreAuthorize(ONLY_OWNER_BY_ID)
-    public User updateUser(@PathVariable final long id, @RequestBody @Valid final UserDto userDto) {
-        return userService.updateUser(id, userDto);
+    public User updateUser(@PathVariable final long id, @RequestBody @Valid final UserDto userDto,
+                           @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        return userService.updateUser(id, userDto, EntityTags.expectedVersion(ifMatch));
     }
 
     @Operation(summary = "Delete user by id")
@@ -0,0 +1,4 @@
+package hexlet.code.dto;
+
+public record IdCount(Long id, Long count) {
+}
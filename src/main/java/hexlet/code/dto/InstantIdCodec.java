@@ -0,0 +1,45 @@
+package hexlet.code.dto;
+
+import hexlet.code.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.BiFunction;
+
+// Пара (момент, id) в непрозрачной строке base64url: секунды, наносекунды и id в 20 байтах
+final class InstantIdCodec {
+
+    private static final int BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private InstantIdCodec() {
+    }
+
+    static String encode(final Instant instant, final Long id) {
+        final ByteBuffer buffer = ByteBuffer.allocate(BYTES)
+                .putLong(instant.getEpochSecond())
+                .putInt(instant.getNano())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    static <T> T decode(final String value, final BiFunction<Instant, Long, T> factory) {
+        final byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(value);
+        }
+        if (bytes.length != BYTES) {
+            throw new InvalidCursorException(value);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final long seconds = buffer.getLong();
+        final int nanos = buffer.getInt();
+        if (nanos < 0 || nanos > 999_999_999) {
+            throw new InvalidCursorException(value);
+        }
+        return factory.apply(Instant.ofEpochSecond(seconds, nanos), buffer.getLong());
+    }
+
+}
@@ -0,0 +1,6 @@
+package hexlet.code.dto;
+
+import java.util.Date;
+
+public record LabelView(Long id, String name, Date createdAt, Long version) implements Versioned {
+}
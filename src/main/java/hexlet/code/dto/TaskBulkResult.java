@@ -0,0 +1,18 @@
+package hexlet.code.dto;
+
+import org.springframework.validation.FieldError;
+
+import java.util.List;
+
+// Результат одного элемента POST /tasks/bulk: id созданной задачи или ошибки
+public record TaskBulkResult(int index, Long id, List<FieldError> errors) {
+
+    public static TaskBulkResult created(final int index, final Long id) {
+        return new TaskBulkResult(index, id, List.of());
+    }
+
+    public static TaskBulkResult failed(final int index, final List<FieldError> errors) {
+        return new TaskBulkResult(index, null, errors);
+    }
+
+}
@@ -0,0 +1,27 @@
+package hexlet.code.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.AssertTrue;
+import java.util.Set;
+
+// Массовое изменение статуса и/или исполнителя задач, выбранных фильтром и (необязательно) списком id
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkUpdateDto {
+
+    private Set<Long> ids;
+
+    private Long taskStatusId;
+
+    private Long executorId;
+
+    @AssertTrue(message = "taskStatusId or executorId must be set")
+    public boolean isChangeSpecified() {
+        return taskStatusId != null || executorId != null;
+    }
+
+}
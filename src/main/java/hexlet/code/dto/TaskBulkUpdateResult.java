@@ -0,0 +1,4 @@
+package hexlet.code.dto;
+
+public record TaskBulkUpdateResult(long updated) {
+}
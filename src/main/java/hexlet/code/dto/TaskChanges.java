@@ -0,0 +1,11 @@
+package hexlet.code.dto;
+
+import java.util.List;
+
+// Ответ GET /tasks/changes. next - водяной знак для следующего запроса;
+// hasMore - изменений больше, чем вошло в ответ, и следующий запрос можно делать сразу
+public record TaskChanges(List<TaskView> changed,
+                          List<Long> deleted,
+                          String next,
+                          boolean hasMore) {
+}
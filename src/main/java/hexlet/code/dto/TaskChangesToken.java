@@ -0,0 +1,26 @@
+package hexlet.code.dto;
+
+import java.time.Instant;
+
+// Водяной знак GET /tasks/changes: позиция в ленте изменений, упорядоченной по (updatedAt, id).
+// Формат тот же, что у TaskCursor, но это другая лента - курсоры между ними не взаимозаменяемы.
+public record TaskChangesToken(Instant updatedAt, Long id) {
+
+    public static TaskChangesToken after(final TaskView task) {
+        return new TaskChangesToken(task.updatedAt().toInstant(), task.id());
+    }
+
+    // После всех задач с updatedAt не позже until
+    public static TaskChangesToken upTo(final Instant until) {
+        return new TaskChangesToken(until, Long.MAX_VALUE);
+    }
+
+    public String encode() {
+        return InstantIdCodec.encode(updatedAt, id);
+    }
+
+    public static TaskChangesToken decode(final String token) {
+        return InstantIdCodec.decode(token, TaskChangesToken::new);
+    }
+
+}
@@ -0,0 +1,21 @@
+package hexlet.code.dto;
+
+import java.time.Instant;
+
+// Позиция в ленте задач, упорядоченной по (createdAt, id).
+// Клиенту отдается непрозрачной строкой base64url.
+public record TaskCursor(Instant createdAt, Long id) {
+
+    public static TaskCursor after(final TaskView task) {
+        return new TaskCursor(task.createdAt().toInstant(), task.id());
+    }
+
+    public String encode() {
+        return InstantIdCodec.encode(createdAt, id);
+    }
+
+    public static TaskCursor decode(final String cursor) {
+        return InstantIdCodec.decode(cursor, TaskCursor::new);
+    }
+
+}
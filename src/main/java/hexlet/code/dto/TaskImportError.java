@@ -0,0 +1,5 @@
+package hexlet.code.dto;
+
+// row - номер строки данных с 1, без заголовка CSV; field == null - строку не удалось разобрать
+public record TaskImportError(long row, String field, String message) {
+}
@@ -0,0 +1,12 @@
+package hexlet.code.dto;
+
+import java.util.List;
+
+// Строка импорта: ссылки - по именам статуса и меток и email исполнителя.
+// В CSV - колонки с теми же именами, метки в одной ячейке через ';'
+public record TaskImportRow(String name,
+                            String description,
+                            String status,
+                            String executor,
+                            List<String> labels) {
+}
@@ -0,0 +1,24 @@
+package hexlet.code.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// Ход импорта: rows - прочитано строк, imported/failed - из них создано задач и отклонено.
+// errors - первые ошибки строк; failure - причина, по которой импорт прерван
+public record TaskImportStatus(long id,
+                               State state,
+                               Instant startedAt,
+                               Instant finishedAt,
+                               long rows,
+                               long imported,
+                               long failed,
+                               List<TaskImportError> errors,
+                               String failure) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+}
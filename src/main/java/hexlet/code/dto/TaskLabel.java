@@ -0,0 +1,4 @@
+package hexlet.code.dto;
+
+public record TaskLabel(Long taskId, Long labelId) {
+}
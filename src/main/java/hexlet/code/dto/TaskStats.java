@@ -0,0 +1,11 @@
+package hexlet.code.dto;
+
+import java.util.Map;
+
+// Ключи карт - id статуса, исполнителя и метки; нулевые счетчики не выводятся
+public record TaskStats(long total,
+                        long unassigned,
+                        Map<Long, Long> byStatus,
+                        Map<Long, Long> byExecutor,
+                        Map<Long, Long> byLabel) {
+}
@@ -0,0 +1,4 @@
+package hexlet.code.dto;
+
+public record TaskText(Long id, String name, String description) {
+}
@@ -0,0 +1,34 @@
+package hexlet.code.dto;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Ответ GET /tasks в том же JSON, что и сущность Task, но без persistence context
+public record TaskView(Long id,
+                       String name,
+                       String description,
+                       TaskStatusView taskStatus,
+                       UserView author,
+                       UserView executor,
+                       Set<LabelView> labels,
+                       Date createdAt,
+                       Date updatedAt,
+                       Long version) implements Versioned {
+
+    public TaskView withLabels(final Set<LabelView> newLabels) {
+        return new TaskView(id, name, description, taskStatus, author, executor, newLabels, createdAt, updatedAt,
+                version);
+    }
+
+    @Override
+    public Stream<Versioned> nested() {
+        return Stream.concat(
+                Stream.of(taskStatus, author, executor).filter(Objects::nonNull),
+                labels.stream().sorted(Comparator.comparing(LabelView::id))
+        );
+    }
+
+}
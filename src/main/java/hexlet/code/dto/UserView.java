@@ -0,0 +1,7 @@
+package hexlet.code.dto;
+
+import java.util.Date;
+
+public record UserView(Long id, String email, String firstName, String lastName, Date createdAt, Long version)
+        implements Versioned {
+}
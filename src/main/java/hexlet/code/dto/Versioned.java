@@ -0,0 +1,18 @@
+package hexlet.code.dto;
+
+import java.util.stream.Stream;
+
+// Представление с версией строки, из которой построено.
+// Версия - поле @Version сущности: растет при каждом изменении, основа ETag и оптимистической блокировки
+public interface Versioned {
+
+    Long id();
+
+    Long version();
+
+    // Вложенные представления: их изменение тоже меняет ответ
+    default Stream<Versioned> nested() {
+        return Stream.empty();
+    }
+
+}
@@ -0,0 +1,10 @@
+package hexlet.code.event;
+
+// Публикуется TaskService внутри транзакции: before == null - задача создана, after == null - удалена
+public record TaskChangedEvent(TaskSnapshot before, TaskSnapshot after) {
+
+    public Long taskId() {
+        return after == null ? before.id() : after.id();
+    }
+
+}
@@ -0,0 +1,32 @@
+package hexlet.code.event;
+
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Неизменяемый срез задачи на момент события; связи - только id
+public record TaskSnapshot(Long id,
+                           String name,
+                           String description,
+                           Long taskStatusId,
+                           Long authorId,
+                           Long executorId,
+                           Set<Long> labelIds) {
+
+    public static TaskSnapshot of(final Task task) {
+        return new TaskSnapshot(
+                task.getId(),
+                task.getName(),
+                task.getDescription(),
+                task.getTaskStatus().getId(),
+                task.getAuthor().getId(),
+                task.getExecutor() == null ? null : task.getExecutor().getId(),
+                task.getLabels() == null
+                        ? Set.of()
+                        : task.getLabels().stream().map(Label::getId).collect(Collectors.toUnmodifiableSet())
+        );
+    }
+
+}
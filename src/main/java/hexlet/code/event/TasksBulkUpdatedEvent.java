@@ -0,0 +1,5 @@
+package hexlet.code.event;
+
+// Массовое изменение одним UPDATE: какие именно задачи изменились, неизвестно
+public record TasksBulkUpdatedEvent(long updated) {
+}
@@ -0,0 +1,11 @@
+package hexlet.code.exception;
+
+import java.time.Instant;
+
+public class ChangesExpiredException extends RuntimeException {
+
+    public ChangesExpiredException(final Instant since, final Instant horizon) {
+        super("Changes since " + since + " are no longer kept (only after " + horizon + "), reload all tasks");
+    }
+
+}
@@ -0,0 +1,9 @@
+package hexlet.code.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(final String key) {
+        super("Request with Idempotency-Key " + key + " is still in progress");
+    }
+
+}
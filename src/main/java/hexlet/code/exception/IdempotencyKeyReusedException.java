@@ -0,0 +1,9 @@
+package hexlet.code.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(final String key) {
+        super("Idempotency-Key " + key + " was already used with a different request");
+    }
+
+}
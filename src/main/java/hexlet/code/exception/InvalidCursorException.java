@@ -0,0 +1,9 @@
+package hexlet.code.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(final String cursor) {
+        super("Invalid cursor: " + cursor);
+    }
+
+}
@@ -0,0 +1,15 @@
+package hexlet.code.exception;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSec;
+
+    public PasswordHashingRejectedException(final long retryAfterSec) {
+        super("Too many password operations in progress, retry later");
+        this.retryAfterSec = retryAfterSec;
+    }
+
+}
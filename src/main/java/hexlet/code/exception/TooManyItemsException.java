@@ -0,0 +1,9 @@
+package hexlet.code.exception;
+
+public class TooManyItemsException extends RuntimeException {
+
+    public TooManyItemsException(final int maxItems) {
+        super("Too many items in one request, max: " + maxItems);
+    }
+
+}
@@ -0,0 +1,18 @@
+package hexlet.code.exception;
+
+import lombok.Getter;
+import org.springframework.validation.FieldError;
+
+import java.util.List;
+
+@Getter
+public class UnknownReferencesException extends RuntimeException {
+
+    private final List<FieldError> errors;
+
+    public UnknownReferencesException(final List<FieldError> errors) {
+        super("Unknown references: " + errors.stream().map(FieldError::getField).toList());
+        this.errors = errors;
+    }
+
+}
@@ -0,0 +1,16 @@
+package hexlet.code.exception;
+
+public class VersionMismatchException extends RuntimeException {
+
+    public VersionMismatchException(final Long expected, final Long actual) {
+        super("Entity has changed: expected version " + expected + ", current " + actual);
+    }
+
+    // expected == null - клиент версию не прислал, проверять нечего
+    public static void check(final Long expected, final Long actual) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new VersionMismatchException(expected, actual);
+        }
+    }
+
+}
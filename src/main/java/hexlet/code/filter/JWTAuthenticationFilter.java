@@ -2,7 +2,10 @@ package hexlet.code.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import hexlet.code.component.JWTHelper;
+import hexlet.code.component.PasswordHashUpgrader;
+import hexlet.code.config.security.AppUserDetails;
 import hexlet.code.dto.LoginDto;
+import hexlet.code.exception.PasswordHashingRejectedException;
 
 import java.io.IOException;
 import java.util.Map;
@@ -12,6 +15,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
@@ -19,17 +23,24 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
+import static hexlet.code.component.JWTHelper.USER_ID;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
 public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private final JWTHelper jwtHelper;
+    private final PasswordHashUpgrader passwordHashUpgrader;
 
     public JWTAuthenticationFilter(final AuthenticationManager authenticationManager,
                                    final RequestMatcher loginRequest,
-                                   final JWTHelper jwtHelper) {
+                                   final JWTHelper jwtHelper,
+                                   final PasswordHashUpgrader passwordHashUpgrader) {
         super(authenticationManager);
         super.setRequiresAuthenticationRequestMatcher(loginRequest);
         this.jwtHelper = jwtHelper;
+        this.passwordHashUpgrader = passwordHashUpgrader;
     }
 
     @Override
@@ -41,7 +52,32 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                 loginData.getPassword()
         );
         setDetails(request, authRequest);
-        return getAuthenticationManager().authenticate(authRequest);
+        try {
+            final Authentication authResult = getAuthenticationManager().authenticate(authRequest);
+            if (authResult.getPrincipal() instanceof AppUserDetails user) {
+                passwordHashUpgrader.upgrade(user, loginData.getPassword());
+            }
+            return authResult;
+        } catch (PasswordHashingRejectedException e) {
+            rejectWhenOverloaded(response, e);
+        } catch (InternalAuthenticationServiceException e) {
+            if (!(e.getCause() instanceof PasswordHashingRejectedException rejected)) {
+                throw e;
+            }
+            rejectWhenOverloaded(response, rejected);
+        }
+        return null;
+    }
+
+    private void rejectWhenOverloaded(final HttpServletResponse response,
+                                      final PasswordHashingRejectedException exception) {
+        response.setStatus(SERVICE_UNAVAILABLE.value());
+        response.setHeader(RETRY_AFTER, String.valueOf(exception.getRetryAfterSec()));
+        try {
+            response.getWriter().println(exception.getMessage());
+        } catch (IOException e) {
+            throw new InternalAuthenticationServiceException(exception.getMessage(), e);
+        }
     }
 
     private LoginDto getLoginData(final HttpServletRequest request) throws AuthenticationException {
@@ -61,7 +97,10 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                                             final FilterChain chain,
                                             final Authentication authResult) throws IOException {
         final UserDetails user = (UserDetails) authResult.getPrincipal();
-        final String token = jwtHelper.expiring(Map.of(SPRING_SECURITY_FORM_USERNAME_KEY, user.getUsername()));
+        final Map<String, Object> claims = user instanceof AppUserDetails appUser
+                ? Map.of(SPRING_SECURITY_FORM_USERNAME_KEY, user.getUsername(), USER_ID, appUser.getId())
+                : Map.of(SPRING_SECURITY_FORM_USERNAME_KEY, user.getUsername());
+        final String token = jwtHelper.expiring(claims);
         response.getWriter().println(token);
     }
 
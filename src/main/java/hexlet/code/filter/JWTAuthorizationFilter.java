@@ -1,6 +1,8 @@
 package hexlet.code.filter;
 
-import hexlet.code.component.JWTHelper;
+import hexlet.code.component.TokenClaims;
+import hexlet.code.component.VerifiedTokenCache;
+import hexlet.code.config.security.AuthenticatedUser;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.util.matcher.RequestMatcher;
@@ -15,18 +17,17 @@ import javax.servlet.http.HttpServletResponse;
 
 import static hexlet.code.config.security.SecurityConfig.DEFAULT_AUTHORITIES;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
-import static org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.SPRING_SECURITY_FORM_USERNAME_KEY;
 
 public class JWTAuthorizationFilter extends OncePerRequestFilter {
 
     private static final String BEARER = "Bearer";
     private final RequestMatcher publicUrls;
-    private final JWTHelper jwtHelper;
+    private final VerifiedTokenCache verifiedTokens;
 
     public JWTAuthorizationFilter(final RequestMatcher publicUrls,
-                                  final JWTHelper jwtHelper) {
+                                  final VerifiedTokenCache verifiedTokens) {
         this.publicUrls = publicUrls;
-        this.jwtHelper = jwtHelper;
+        this.verifiedTokens = verifiedTokens;
     }
 
     @Override
@@ -38,13 +39,17 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(final HttpServletRequest request,
                                     final HttpServletResponse response,
                                     final FilterChain filterChain) throws ServletException, IOException {
+        // без токена запрос остается анонимным, и проверка доступа отвечает 401
+        if (request.getHeader(AUTHORIZATION) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         final var authToken = Optional.ofNullable(request.getHeader(AUTHORIZATION))
                 .map(header -> header.replaceFirst("^" + BEARER, ""))
                 .map(String::trim)
-                .map(jwtHelper::verify)
-                .map(claims -> claims.get(SPRING_SECURITY_FORM_USERNAME_KEY))
-                .map(Object::toString)
+                .map(verifiedTokens::verify)
+                .filter(claims -> claims.username() != null)
                 .map(this::buildAuthToken)
                 .orElseThrow();
 
@@ -53,9 +58,9 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private UsernamePasswordAuthenticationToken buildAuthToken(final String username) {
+    private UsernamePasswordAuthenticationToken buildAuthToken(final TokenClaims claims) {
         return new UsernamePasswordAuthenticationToken(
-                username,
+                new AuthenticatedUser(claims.userId(), claims.username()),
                 null,
                 DEFAULT_AUTHORITIES
         );
@@ -6,15 +6,20 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -22,7 +27,7 @@ import javax.validation.constraints.Size;
 import java.util.Date;
 import java.util.Set;
 
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static javax.persistence.TemporalType.TIMESTAMP;
 
 @Entity
@@ -31,11 +36,19 @@ import static javax.persistence.TemporalType.TIMESTAMP;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_created_at_id", columnList = "createdAt, id"),
+    @Index(name = "idx_tasks_status_created_at", columnList = "task_status_id, createdAt, id"),
+    @Index(name = "idx_tasks_executor_created_at", columnList = "executor_id, createdAt, id"),
+    @Index(name = "idx_tasks_author_created_at", columnList = "author_id, createdAt, id"),
+    @Index(name = "idx_tasks_updated_at_id", columnList = "updatedAt, id")
+})
 public class Task {
 
+    // Пул из 50 id на одно обращение к последовательности, иначе Hibernate не батчит вставки
     @Id
-    @GeneratedValue(strategy = IDENTITY)
+    @GeneratedValue(strategy = SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -60,12 +73,24 @@ public class Task {
     private User executor;
 
     @ManyToMany()
+    @JoinTable(name = "tasks_labels",
+            joinColumns = @JoinColumn(name = "task_id"),
+            inverseJoinColumns = @JoinColumn(name = "labels_id"),
+            indexes = @Index(name = "idx_tasks_labels_label_task", columnList = "labels_id, task_id"))
     private Set<Label> labels;
 
     @CreationTimestamp
     @Temporal(TIMESTAMP)
     private Date createdAt;
 
+    // Водяной знак для GET /tasks/changes; ставится и при вставке
+    @UpdateTimestamp
+    @Temporal(TIMESTAMP)
+    private Date updatedAt;
+
+    @Version
+    private Long version;
+
     public Task(final Long id) {
         this.id = id;
     }
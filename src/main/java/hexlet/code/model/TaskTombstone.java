@@ -0,0 +1,53 @@
+package hexlet.code.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.Transient;
+
+import java.util.Date;
+
+import static javax.persistence.TemporalType.TIMESTAMP;
+
+// След удаленной задачи для клиентов GET /tasks/changes; хранится ограниченное время
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "task_tombstones", indexes = @Index(name = "idx_task_tombstones_deleted_at", columnList = "deletedAt"))
+public class TaskTombstone implements Persistable<Long> {
+
+    @Id
+    private Long taskId;
+
+    @CreationTimestamp
+    @Temporal(TIMESTAMP)
+    private Date deletedAt;
+
+    public TaskTombstone(final Long taskId) {
+        this.taskId = taskId;
+    }
+
+    @Override
+    public Long getId() {
+        return taskId;
+    }
+
+    // id задается вручную и след пишется один раз: save() сразу делает INSERT, без SELECT перед merge
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
+
+}
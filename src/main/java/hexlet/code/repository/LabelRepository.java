@@ -1,13 +1,31 @@
 package hexlet.code.repository;
 
+import hexlet.code.dto.LabelView;
 import hexlet.code.model.Label;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface LabelRepository extends JpaRepository<Label, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Label> findByName(String name);
 
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.LabelView(l.id, l.name, l.createdAt, l.version) from Label l where l.id = :id")
+    Optional<LabelView> findViewById(Long id);
+
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.LabelView(l.id, l.name, l.createdAt, l.version) from Label l order by l.id")
+    List<LabelView> findAllViews();
+
 }
@@ -1,12 +1,41 @@
 package hexlet.code.repository;
 
+import hexlet.code.dto.IdCount;
 import hexlet.code.model.Task;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TaskRepository extends
         JpaRepository<Task, Long>,
-        QuerydslPredicateExecutor<Task> {
+        QuerydslPredicateExecutor<Task>,
+        TaskRepositoryCustom {
+
+    @Override
+    @EntityGraph(attributePaths = {"taskStatus", "author", "executor", "labels"})
+    Optional<Task> findById(Long id);
+
+    @Query("select t.author.id from Task t where t.id = :id")
+    Optional<Long> findAuthorIdById(Long id);
+
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.IdCount(t.taskStatus.id, count(t)) from Task t group by t.taskStatus.id")
+    List<IdCount> countByStatus();
+
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.IdCount(t.executor.id, count(t)) from Task t "
+            + "where t.executor is not null group by t.executor.id")
+    List<IdCount> countByExecutor();
+
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.IdCount(l.id, count(t)) from Task t join t.labels l group by l.id")
+    List<IdCount> countByLabel();
+
 }
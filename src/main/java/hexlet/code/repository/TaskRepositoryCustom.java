@@ -0,0 +1,52 @@
+package hexlet.code.repository;
+
+import com.querydsl.core.types.Predicate;
+import hexlet.code.dto.LabelView;
+import hexlet.code.dto.TaskChangesToken;
+import hexlet.code.dto.TaskCursor;
+import hexlet.code.dto.TaskLabel;
+import hexlet.code.dto.TaskText;
+import hexlet.code.dto.TaskView;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface TaskRepositoryCustom {
+
+    // Задачи после курсора (null - с начала) в порядке (createdAt, id), сразу в TaskView без сущностей
+    List<TaskView> findViewPage(Predicate predicate, TaskCursor after, int limit);
+
+    Optional<TaskView> findViewById(Long id);
+
+    // Позиции задач фильтра в порядке (createdAt, id), не больше limit
+    List<TaskCursor> findPositions(Predicate predicate, int limit);
+
+    // Задачи в порядке ids, например результата поиска
+    List<TaskView> findViewsByIds(List<Long> ids);
+
+    // Задачи, измененные после токена (null - все) и не позже until, в порядке (updatedAt, id)
+    List<TaskView> findChangedViews(TaskChangesToken after, Instant until, int limit);
+
+    // Тексты всех задач для построения поискового индекса; вызывать внутри транзакции и закрывать
+    Stream<TaskText> streamTexts();
+
+    // Пары (задача, метка) для построения индекса меток; вызывать внутри транзакции и закрывать
+    Stream<TaskLabel> streamLabelIds();
+
+    // Однонаправленный курсор с ограниченным fetch size, метки не заполнены (см. findLabelViews);
+    // вызывать внутри транзакции и закрывать
+    Stream<TaskView> streamViews(Predicate predicate);
+
+    Map<Long, Set<LabelView>> findLabelViews(Collection<Long> taskIds);
+
+    // Один UPDATE по задачам автора, подходящим под фильтр; null в status/executor - не менять
+    long updateAuthoredTasks(Long authorId, Predicate predicate, TaskStatus status, User executor);
+
+}
@@ -0,0 +1,292 @@
+package hexlet.code.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import hexlet.code.dto.LabelView;
+import hexlet.code.dto.TaskChangesToken;
+import hexlet.code.dto.TaskCursor;
+import hexlet.code.dto.TaskStatusView;
+import hexlet.code.dto.TaskLabel;
+import hexlet.code.dto.TaskText;
+import hexlet.code.dto.TaskView;
+import hexlet.code.dto.UserView;
+import hexlet.code.model.QLabel;
+import hexlet.code.model.QTask;
+import hexlet.code.model.QTaskStatus;
+import hexlet.code.model.QUser;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final QTask TASK = QTask.task;
+    private static final QTaskStatus STATUS = new QTaskStatus("status");
+    private static final QUser AUTHOR = new QUser("author");
+    private static final QUser EXECUTOR = new QUser("executor");
+    private static final QLabel LABEL = new QLabel("label");
+
+    private static final Expression<?>[] VIEW_COLUMNS = {
+        TASK.id, TASK.name, TASK.description, TASK.createdAt, TASK.updatedAt, TASK.version,
+        STATUS.id, STATUS.name, STATUS.createdAt, STATUS.version,
+        AUTHOR.id, AUTHOR.email, AUTHOR.firstName, AUTHOR.lastName, AUTHOR.createdAt, AUTHOR.version,
+        EXECUTOR.id, EXECUTOR.email, EXECUTOR.firstName, EXECUTOR.lastName, EXECUTOR.createdAt, EXECUTOR.version
+    };
+    private static final Expression<?>[] VIEW_WITH_LABEL_COLUMNS = Stream.concat(
+            Arrays.stream(VIEW_COLUMNS),
+            Stream.of(LABEL.id, LABEL.name, LABEL.createdAt, LABEL.version)
+    ).toArray(Expression<?>[]::new);
+
+    private final JPAQueryFactory queryFactory;
+    private final int exportFetchSize;
+
+    public TaskRepositoryCustomImpl(final EntityManager entityManager,
+                                    @Value("${tasks.export.fetch-size:500}") final int exportFetchSize) {
+        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    // Страница - два запроса: задачи со статусом, автором и исполнителем, затем метки всех задач страницы.
+    // Строки сразу превращаются в TaskView, без сущностей в persistence context
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskView> findViewPage(final Predicate predicate, final TaskCursor after, final int limit) {
+        final List<TaskView> tasks = selectViews()
+                .where(pageCondition(predicate, after))
+                .orderBy(TASK.createdAt.asc(), TASK.id.asc())
+                .limit(limit)
+                .fetch()
+                .stream()
+                .map(TaskRepositoryCustomImpl::toView)
+                .toList();
+        return withLabels(tasks, findLabelViews(tasks.stream().map(TaskView::id).toList()));
+    }
+
+    // Одна задача - один запрос: строка на каждую метку
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TaskView> findViewById(final Long id) {
+        final List<Tuple> rows = queryFactory.select(VIEW_WITH_LABEL_COLUMNS)
+                .from(TASK)
+                .join(TASK.taskStatus, STATUS)
+                .join(TASK.author, AUTHOR)
+                .leftJoin(TASK.executor, EXECUTOR)
+                .leftJoin(TASK.labels, LABEL)
+                .where(TASK.id.eq(id))
+                .orderBy(LABEL.id.asc())
+                .fetch();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final Set<LabelView> labels = new LinkedHashSet<>();
+        for (final Tuple row : rows) {
+            if (row.get(LABEL.id) != null) {
+                labels.add(toLabelView(row));
+            }
+        }
+        return Optional.of(toView(rows.get(0)).withLabels(labels));
+    }
+
+    // Только (createdAt, id): для частых фильтров читается из индексов, без join
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskCursor> findPositions(final Predicate predicate, final int limit) {
+        return queryFactory.select(TASK.createdAt, TASK.id)
+                .from(TASK)
+                .where(predicate)
+                .orderBy(TASK.createdAt.asc(), TASK.id.asc())
+                .limit(limit)
+                .fetch()
+                .stream()
+                .map(row -> new TaskCursor(row.get(TASK.createdAt).toInstant(), row.get(TASK.id)))
+                .toList();
+    }
+
+    // Порядок результата - порядок ids; отсутствующие задачи пропускаются
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskView> findViewsByIds(final List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        final Map<Long, TaskView> tasks = new HashMap<>();
+        selectViews()
+                .where(TASK.id.in(ids))
+                .fetch()
+                .forEach(row -> tasks.put(row.get(TASK.id), toView(row)));
+        final List<TaskView> ordered = ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return withLabels(ordered, findLabelViews(tasks.keySet()));
+    }
+
+    // Диапазон по индексу (updatedAt, id): после токена и не позже until
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskView> findChangedViews(final TaskChangesToken after, final Instant until, final int limit) {
+        final BooleanBuilder where = new BooleanBuilder(TASK.updatedAt.loe(Timestamp.from(until)));
+        if (after != null) {
+            final Timestamp updatedAt = Timestamp.from(after.updatedAt());
+            where.and(TASK.updatedAt.gt(updatedAt)
+                    .or(TASK.updatedAt.eq(updatedAt).and(TASK.id.gt(after.id()))));
+        }
+        final List<TaskView> tasks = selectViews()
+                .where(where)
+                .orderBy(TASK.updatedAt.asc(), TASK.id.asc())
+                .limit(limit)
+                .fetch()
+                .stream()
+                .map(TaskRepositoryCustomImpl::toView)
+                .toList();
+        return withLabels(tasks, findLabelViews(tasks.stream().map(TaskView::id).toList()));
+    }
+
+    @Override
+    public Stream<TaskText> streamTexts() {
+        return queryFactory.select(Projections.constructor(TaskText.class, TASK.id, TASK.name, TASK.description))
+                .from(TASK)
+                .setHint(FETCH_SIZE, exportFetchSize)
+                .stream();
+    }
+
+    @Override
+    public Stream<TaskLabel> streamLabelIds() {
+        return queryFactory.select(Projections.constructor(TaskLabel.class, TASK.id, LABEL.id))
+                .from(TASK)
+                .join(TASK.labels, LABEL)
+                .setHint(FETCH_SIZE, exportFetchSize)
+                .stream();
+    }
+
+    @Override
+    public Stream<TaskView> streamViews(final Predicate predicate) {
+        return selectViews()
+                .where(predicate)
+                .orderBy(TASK.createdAt.asc(), TASK.id.asc())
+                .setHint(FETCH_SIZE, exportFetchSize)
+                .stream()
+                .map(TaskRepositoryCustomImpl::toView);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Set<LabelView>> findLabelViews(final Collection<Long> taskIds) {
+        final Map<Long, Set<LabelView>> labels = new HashMap<>();
+        if (taskIds.isEmpty()) {
+            return labels;
+        }
+        queryFactory.select(TASK.id, LABEL.id, LABEL.name, LABEL.createdAt, LABEL.version)
+                .from(TASK)
+                .join(TASK.labels, LABEL)
+                .where(TASK.id.in(taskIds))
+                .orderBy(LABEL.id.asc())
+                .fetch()
+                .forEach(row -> labels.computeIfAbsent(row.get(TASK.id), id -> new LinkedHashSet<>())
+                        .add(toLabelView(row)));
+        return labels;
+    }
+
+    // Фильтр построен на корне QTask.task, поэтому он уходит в подзапрос по id,
+    // а обновляемая таблица получает другой алиас
+    @Override
+    @Transactional
+    public long updateAuthoredTasks(final Long authorId, final Predicate predicate,
+                                    final TaskStatus status, final User executor) {
+        final QTask target = new QTask("target");
+        final JPAUpdateClause update = queryFactory.update(target)
+                .where(target.id.in(JPAExpressions.select(TASK.id)
+                        .from(TASK)
+                        .where(TASK.author.id.eq(authorId), predicate)));
+        if (status != null) {
+            update.set(target.taskStatus, status);
+        }
+        if (executor != null) {
+            update.set(target.executor, executor);
+        }
+        // JPQL UPDATE сам ни версию, ни @UpdateTimestamp не меняет
+        update.set(target.version, target.version.add(1L));
+        update.set(target.updatedAt, new Date());
+        return update.execute();
+    }
+
+    private JPAQuery<Tuple> selectViews() {
+        return queryFactory.select(VIEW_COLUMNS)
+                .from(TASK)
+                .join(TASK.taskStatus, STATUS)
+                .join(TASK.author, AUTHOR)
+                .leftJoin(TASK.executor, EXECUTOR);
+    }
+
+    private static Predicate pageCondition(final Predicate predicate, final TaskCursor after) {
+        final BooleanBuilder where = new BooleanBuilder(predicate);
+        if (after != null) {
+            final Timestamp createdAt = Timestamp.from(after.createdAt());
+            where.and(TASK.createdAt.gt(createdAt)
+                    .or(TASK.createdAt.eq(createdAt).and(TASK.id.gt(after.id()))));
+        }
+        return where;
+    }
+
+    private static List<TaskView> withLabels(final List<TaskView> tasks, final Map<Long, Set<LabelView>> labels) {
+        return tasks.stream()
+                .map(task -> task.withLabels(labels.getOrDefault(task.id(), Set.of())))
+                .toList();
+    }
+
+    private static TaskView toView(final Tuple row) {
+        return new TaskView(
+                row.get(TASK.id),
+                row.get(TASK.name),
+                row.get(TASK.description),
+                new TaskStatusView(row.get(STATUS.id), row.get(STATUS.name), row.get(STATUS.createdAt),
+                        row.get(STATUS.version)),
+                toUserView(row, AUTHOR),
+                toUserView(row, EXECUTOR),
+                Set.of(),
+                row.get(TASK.createdAt),
+                row.get(TASK.updatedAt),
+                row.get(TASK.version)
+        );
+    }
+
+    private static UserView toUserView(final Tuple row, final QUser user) {
+        final Long id = row.get(user.id);
+        if (id == null) {
+            return null;
+        }
+        return new UserView(id, row.get(user.email), row.get(user.firstName), row.get(user.lastName),
+                row.get(user.createdAt), row.get(user.version));
+    }
+
+    private static LabelView toLabelView(final Tuple row) {
+        return new LabelView(row.get(LABEL.id), row.get(LABEL.name), row.get(LABEL.createdAt), row.get(LABEL.version));
+    }
+
+}
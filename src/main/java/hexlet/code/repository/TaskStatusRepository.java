@@ -1,13 +1,33 @@
 package hexlet.code.repository;
 
+import hexlet.code.dto.TaskStatusView;
 import hexlet.code.model.TaskStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface TaskStatusRepository  extends JpaRepository<TaskStatus, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<TaskStatus> findByName(String name);
 
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.TaskStatusView(s.id, s.name, s.createdAt, s.version) "
+            + "from TaskStatus s where s.id = :id")
+    Optional<TaskStatusView> findViewById(Long id);
+
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.TaskStatusView(s.id, s.name, s.createdAt, s.version) "
+            + "from TaskStatus s order by s.id")
+    List<TaskStatusView> findAllViews();
+
 }
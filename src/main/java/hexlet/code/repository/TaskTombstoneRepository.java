@@ -0,0 +1,26 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.TaskTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    @Transactional(readOnly = true)
+    @Query("select t.taskId from TaskTombstone t where t.deletedAt > :after and t.deletedAt <= :until "
+            + "order by t.deletedAt, t.taskId")
+    List<Long> findDeletedIds(Date after, Date until);
+
+    @Modifying
+    @Transactional
+    @Query("delete from TaskTombstone t where t.deletedAt < :before")
+    int deleteOlderThan(Date before);
+
+}
@@ -1,14 +1,40 @@
 package hexlet.code.repository;
 
+import hexlet.code.dto.UserView;
 import hexlet.code.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
 
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.UserView(u.id, u.email, u.firstName, u.lastName, u.createdAt, u.version) "
+            + "from User u where u.id = :id")
+    Optional<UserView> findViewById(Long id);
+
+    @Transactional(readOnly = true)
+    @Query("select new hexlet.code.dto.UserView(u.id, u.email, u.firstName, u.lastName, u.createdAt, u.version) "
+            + "from User u order by u.id")
+    List<UserView> findAllViews();
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newHash where u.email = :email and u.password = :oldHash")
+    int updatePassword(String email, String oldHash, String newHash);
+
 }
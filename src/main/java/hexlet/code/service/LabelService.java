@@ -6,6 +6,6 @@ import hexlet.code.model.Label;
 public interface LabelService {
 
     Label createLabel(LabelDto labelDto);
-    Label updateLabel(Long id, LabelDto labelDto);
+    Label updateLabel(Long id, LabelDto labelDto, Long expectedVersion);
 
 }
@@ -0,0 +1,14 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskImportStatus;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface TaskImportService {
+
+    TaskImportStatus importTasks(InputStream in, boolean ndjson, boolean gzip);
+    List<TaskImportStatus> getImports();
+    TaskImportStatus getImport(long id);
+
+}
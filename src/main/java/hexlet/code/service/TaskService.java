@@ -1,11 +1,24 @@
 package hexlet.code.service;
 
+import com.querydsl.core.types.Predicate;
+import hexlet.code.dto.TaskBulkResult;
+import hexlet.code.dto.TaskBulkUpdateDto;
 import hexlet.code.dto.TaskDto;
+import hexlet.code.dto.TaskView;
 import hexlet.code.model.Task;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 public interface TaskService {
 
     Task createNewTask(TaskDto taskDto);
-    Task updateTask(Long id, TaskDto taskDto);
+    List<TaskBulkResult> createTasks(List<TaskDto> taskDtos);
+    Task updateTask(Long id, TaskDto taskDto, Long expectedVersion);
+    long updateTasks(Predicate predicate, TaskBulkUpdateDto bulkUpdateDto);
+    void deleteTask(Long id);
+    List<TaskView> searchTasks(String query, int limit);
+    void exportTasks(Predicate predicate, boolean ndjson, OutputStream out) throws IOException;
 
 }
@@ -6,6 +6,6 @@ import hexlet.code.model.TaskStatus;
 public interface TaskStatusService {
 
     TaskStatus createNewTaskStatus(TaskStatusDto dto);
-    TaskStatus updateTaskStatus(long id, TaskStatusDto dto);
+    TaskStatus updateTaskStatus(long id, TaskStatusDto dto, Long expectedVersion);
 
 }
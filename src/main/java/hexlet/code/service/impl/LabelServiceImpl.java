@@ -1,6 +1,7 @@
 package hexlet.code.service.impl;
 
 import hexlet.code.dto.LabelDto;
+import hexlet.code.exception.VersionMismatchException;
 import hexlet.code.model.Label;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.service.LabelService;
@@ -21,8 +22,9 @@ public class LabelServiceImpl implements LabelService {
     }
 
     @Override
-    public Label updateLabel(Long id, LabelDto labelDto) {
+    public Label updateLabel(Long id, LabelDto labelDto, Long expectedVersion) {
         Label label = labelRepository.findById(id).get();
+        VersionMismatchException.check(expectedVersion, label.getVersion());
         label.setName(labelDto.getName());
         return labelRepository.save(label);
     }
@@ -0,0 +1,314 @@
+package hexlet.code.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hexlet.code.dto.TaskBulkResult;
+import hexlet.code.dto.TaskDto;
+import hexlet.code.dto.TaskImportError;
+import hexlet.code.dto.TaskImportRow;
+import hexlet.code.dto.TaskImportStatus;
+import hexlet.code.model.Label;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.UserRepository;
+import hexlet.code.service.TaskImportService;
+import hexlet.code.service.TaskService;
+import hexlet.code.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.FieldError;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Импорт задач из CSV или NDJSON, в том числе сжатых gzip. Файл читается потоком по строке,
+// в памяти - только текущая пачка из chunk-size задач; каждая пачка сохраняется createTasks
+// в своей транзакции. Статусы, метки и исполнители ищутся по имени и email один раз за импорт.
+// Ход импорта и ошибки строк доступны, пока он идет, и retention после окончания.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskImportServiceImpl implements TaskImportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOOKUP_CACHE_SIZE = 10_000;
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema()
+            .withHeader()
+            .withArrayElementSeparator(";");
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final TaskStatusRepository taskStatusRepository;
+    private final LabelRepository labelRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong jobIds = new AtomicLong();
+
+    @Value("${tasks.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${tasks.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${tasks.import.retention-minutes:1440}")
+    private long retentionMinutes;
+
+    // Выполняется в потоке запроса, пока читается тело. Уже сохраненные пачки при сбое остаются
+    @Override
+    public TaskImportStatus importTasks(final InputStream in, final boolean ndjson, final boolean gzip) {
+        final Job job = new Job(jobIds.incrementAndGet(), userService.getCurrentUser().getId(), maxErrors);
+        jobs.put(job.id, job);
+        final Run run = new Run(job);
+        try (Reader reader = new InputStreamReader(gzip ? new GZIPInputStream(in, BUFFER_SIZE) : in, UTF_8)) {
+            if (ndjson) {
+                readNdjson(new BufferedReader(reader, BUFFER_SIZE), run);
+            } else {
+                readCsv(reader, run);
+            }
+            run.flush();
+            job.finish(TaskImportStatus.State.COMPLETED, null);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Task import {} failed after {} rows", job.id, job.rows.get(), e);
+            job.finish(TaskImportStatus.State.FAILED, e.getMessage());
+        }
+        return job.toStatus();
+    }
+
+    @Override
+    public List<TaskImportStatus> getImports() {
+        final Long userId = userService.getCurrentUser().getId();
+        return jobs.values().stream()
+                .filter(job -> job.userId.equals(userId))
+                .sorted(Comparator.comparingLong((Job job) -> job.id).reversed())
+                .map(Job::toStatus)
+                .toList();
+    }
+
+    // Чужие импорты не видны
+    @Override
+    public TaskImportStatus getImport(final long id) {
+        final Long userId = userService.getCurrentUser().getId();
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> job.userId.equals(userId))
+                .map(Job::toStatus)
+                .orElseThrow(() -> new NoSuchElementException("Import not found: " + id));
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.import.purge-interval-ms:600000}")
+    public void purgeFinished() {
+        final Instant expired = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expired));
+    }
+
+    private void readNdjson(final BufferedReader reader, final Run run) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.add(objectMapper.readValue(line, TaskImportRow.class));
+            } catch (JsonProcessingException e) {
+                run.unreadable(e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(final Reader reader, final Run run) throws IOException {
+        try (MappingIterator<TaskImportRow> rows = CSV_MAPPER.readerFor(TaskImportRow.class)
+                .with(CSV_SCHEMA)
+                .readValues(reader)) {
+            while (rows.hasNextValue()) {
+                try {
+                    run.add(rows.nextValue());
+                } catch (JsonProcessingException e) {
+                    // итератор продолжит со следующей записи
+                    run.unreadable(e.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    private static Cache<String, Optional<Long>> lookupCache() {
+        return Caffeine.newBuilder().maximumSize(LOOKUP_CACHE_SIZE).build();
+    }
+
+    // Ссылки в строке импорта - имена, а не id
+    private static String fieldOf(final FieldError error) {
+        return switch (error.getField()) {
+            case "taskStatusId" -> "status";
+            case "executorId" -> "executor";
+            case "labelIds" -> "labels";
+            default -> error.getField();
+        };
+    }
+
+    // Состояние одного импорта: текущая пачка и найденные по имени ссылки
+    private final class Run {
+
+        private final Job job;
+        private final List<TaskDto> chunk = new ArrayList<>(chunkSize);
+        private final List<Long> chunkRows = new ArrayList<>(chunkSize);
+        private final Cache<String, Optional<Long>> statuses = lookupCache();
+        private final Cache<String, Optional<Long>> labels = lookupCache();
+        private final Cache<String, Optional<Long>> executors = lookupCache();
+
+        Run(final Job job) {
+            this.job = job;
+        }
+
+        void add(final TaskImportRow row) {
+            final long rowNumber = job.rows.incrementAndGet();
+            final List<TaskImportError> errors = new ArrayList<>();
+            final Long statusId = row.status() == null
+                    ? null
+                    : find(statuses, row.status(), rowNumber, "status", errors, name ->
+                            taskStatusRepository.findByName(name).map(TaskStatus::getId));
+            final Long executorId = row.executor() == null
+                    ? null
+                    : find(executors, row.executor(), rowNumber, "executor", errors, email ->
+                            userRepository.findByEmail(email).map(User::getId));
+            final Set<Long> labelIds = new HashSet<>();
+            final Set<String> missingLabels = new TreeSet<>();
+            for (final String name : row.labels() == null ? List.<String>of() : row.labels()) {
+                labels.get(name, key -> labelRepository.findByName(key).map(Label::getId))
+                        .ifPresentOrElse(labelIds::add, () -> missingLabels.add(name));
+            }
+            if (!missingLabels.isEmpty()) {
+                errors.add(new TaskImportError(rowNumber, "labels", "Not found: " + missingLabels));
+            }
+            if (!errors.isEmpty()) {
+                job.rejected(errors);
+                return;
+            }
+
+            chunk.add(new TaskDto(row.name(), row.description(), executorId, statusId, labelIds));
+            chunkRows.add(rowNumber);
+            if (chunk.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        void unreadable(final String message) {
+            job.rejected(List.of(new TaskImportError(job.rows.incrementAndGet(), null, message)));
+        }
+
+        // Невалидные задачи пачки отклоняются, остальные сохраняются одной транзакцией
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            for (final TaskBulkResult result : taskService.createTasks(chunk)) {
+                if (result.id() != null) {
+                    job.imported.incrementAndGet();
+                } else {
+                    final long rowNumber = chunkRows.get(result.index());
+                    job.rejected(result.errors().stream()
+                            .map(error -> new TaskImportError(rowNumber, fieldOf(error), error.getDefaultMessage()))
+                            .toList());
+                }
+            }
+            chunk.clear();
+            chunkRows.clear();
+            // EntityManager открыт на весь запрос: без очистки в нем копились бы задачи всех пачек
+            entityManager.clear();
+        }
+
+        private Long find(final Cache<String, Optional<Long>> cache,
+                          final String name,
+                          final long rowNumber,
+                          final String field,
+                          final List<TaskImportError> errors,
+                          final Function<String, Optional<Long>> lookup) {
+            final Optional<Long> id = cache.get(name, lookup);
+            if (id.isEmpty()) {
+                errors.add(new TaskImportError(rowNumber, field, "Not found: " + name));
+            }
+            return id.orElse(null);
+        }
+    }
+
+    private static final class Job {
+
+        private final long id;
+        private final Long userId;
+        private final int maxErrors;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<TaskImportError> errors = new ArrayList<>();
+        private volatile TaskImportStatus.State state = TaskImportStatus.State.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String failure;
+
+        Job(final long id, final Long userId, final int maxErrors) {
+            this.id = id;
+            this.userId = userId;
+            this.maxErrors = maxErrors;
+        }
+
+        void rejected(final List<TaskImportError> rowErrors) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                rowErrors.stream().limit(maxErrors - errors.size()).forEach(errors::add);
+            }
+        }
+
+        void finish(final TaskImportStatus.State finalState, final String reason) {
+            failure = reason;
+            state = finalState;
+            finishedAt = Instant.now();
+        }
+
+        TaskImportStatus toStatus() {
+            final List<TaskImportError> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return new TaskImportStatus(id, state, startedAt, finishedAt, rows.get(), imported.get(), failed.get(),
+                    errorsCopy, failure);
+        }
+    }
+
+}
@@ -1,64 +1,314 @@
 package hexlet.code.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.component.CurrentUser;
+import hexlet.code.component.TaskSearchIndex;
+import hexlet.code.dto.LabelView;
+import hexlet.code.dto.TaskBulkResult;
+import hexlet.code.dto.TaskBulkUpdateDto;
 import hexlet.code.dto.TaskDto;
+import hexlet.code.dto.TaskView;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.event.TasksBulkUpdatedEvent;
+import hexlet.code.exception.UnknownReferencesException;
+import hexlet.code.exception.VersionMismatchException;
+import hexlet.code.model.Label;
+import hexlet.code.model.QTask;
 import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.TaskTombstone;
 import hexlet.code.model.User;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.TaskTombstoneRepository;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.service.TaskService;
 import hexlet.code.service.UserService;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.FieldError;
 
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Transactional
 @AllArgsConstructor
 public class TaskServiceImpl implements TaskService {
 
+    private static final String DTO_NAME = "taskDto";
+    private static final int EXPORT_BATCH_SIZE = 100;
+
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final TaskStatusRepository taskStatusRepository;
     private final LabelRepository labelRepository;
+    private final TaskTombstoneRepository tombstoneRepository;
     private final UserService userService;
+    private final CurrentUser currentUser;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskSearchIndex searchIndex;
 
     @Override
     public Task createNewTask(TaskDto taskDto) {
-        Task newTask = buildTask(taskDto);
-        return taskRepository.save(newTask);
+        Task newTask = taskRepository.save(buildTask(taskDto));
+        eventPublisher.publishEvent(new TaskChangedEvent(null, TaskSnapshot.of(newTask)));
+        return newTask;
+    }
+
+    // Ошибочные элементы не прерывают пачку; вставки задач и tasks_labels уходят JDBC-батчами
+    @Override
+    public List<TaskBulkResult> createTasks(final List<TaskDto> taskDtos) {
+        final List<TaskBulkResult> results = new ArrayList<>(Collections.nCopies(taskDtos.size(), null));
+        final Map<Integer, TaskDto> valid = new LinkedHashMap<>();
+        for (int index = 0; index < taskDtos.size(); index++) {
+            final List<FieldError> errors = validate(taskDtos.get(index));
+            if (errors.isEmpty()) {
+                valid.put(index, taskDtos.get(index));
+            } else {
+                results.set(index, TaskBulkResult.failed(index, errors));
+            }
+        }
+
+        final References references = resolveReferences(valid.values());
+        final User author = userService.getCurrentUser();
+        final Map<Integer, Task> tasks = new LinkedHashMap<>();
+        valid.forEach((index, dto) -> {
+            final List<FieldError> errors = references.unknown(dto);
+            if (errors.isEmpty()) {
+                tasks.put(index, references.toTask(dto, author));
+            } else {
+                results.set(index, TaskBulkResult.failed(index, errors));
+            }
+        });
+
+        taskRepository.saveAll(tasks.values());
+        tasks.forEach((index, task) -> {
+            results.set(index, TaskBulkResult.created(index, task.getId()));
+            eventPublisher.publishEvent(new TaskChangedEvent(null, TaskSnapshot.of(task)));
+        });
+        return results;
     }
 
     @Override
-    public Task updateTask(Long id, TaskDto taskDto) {
+    public Task updateTask(final Long id, final TaskDto taskDto, final Long expectedVersion) {
         final Task task = taskRepository.findById(id).get();
+        VersionMismatchException.check(expectedVersion, task.getVersion());
+        final TaskSnapshot before = TaskSnapshot.of(task);
         merge(task, taskDto);
-        return taskRepository.save(task);
+        final Task updated = taskRepository.save(task);
+        eventPublisher.publishEvent(new TaskChangedEvent(before, TaskSnapshot.of(updated)));
+        return updated;
+    }
+
+    @Override
+    public void deleteTask(final Long id) {
+        final Task task = taskRepository.findById(id).get();
+        taskRepository.delete(task);
+        // в той же транзакции: клиенты GET /tasks/changes узнают об удалении
+        tombstoneRepository.save(new TaskTombstone(id));
+        eventPublisher.publishEvent(new TaskChangedEvent(TaskSnapshot.of(task), null));
+    }
+
+    // Без загрузки задач: ссылки проверяются двумя запросами, изменение - одним UPDATE.
+    // Меняются только задачи текущего пользователя, как и при удалении.
+    @Override
+    public long updateTasks(final Predicate predicate, final TaskBulkUpdateDto bulkUpdateDto) {
+        final List<FieldError> errors = new ArrayList<>();
+        final Long statusId = bulkUpdateDto.getTaskStatusId();
+        if (statusId != null && !taskStatusRepository.existsById(statusId)) {
+            errors.add(unknown("taskStatusId", statusId));
+        }
+        final Long executorId = bulkUpdateDto.getExecutorId();
+        if (executorId != null && !userRepository.existsById(executorId)) {
+            errors.add(unknown("executorId", executorId));
+        }
+        if (!errors.isEmpty()) {
+            throw new UnknownReferencesException(errors);
+        }
+
+        final BooleanBuilder where = new BooleanBuilder(predicate);
+        if (bulkUpdateDto.getIds() != null) {
+            where.and(QTask.task.id.in(bulkUpdateDto.getIds()));
+        }
+        // id - из токена: удаленному пользователю подзапрос по автору просто ничего не найдет
+        final long updated = taskRepository.updateAuthoredTasks(
+                currentUser.getId(),
+                where,
+                statusId == null ? null : taskStatusRepository.getById(statusId),
+                executorId == null ? null : userRepository.getById(executorId)
+        );
+        if (updated > 0) {
+            eventPublisher.publishEvent(new TasksBulkUpdatedEvent(updated));
+        }
+        return updated;
+    }
+
+    // Ранжирование - в индексе, из БД читаются только найденные задачи
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskView> searchTasks(final String query, final int limit) {
+        return taskRepository.findViewsByIds(searchIndex.search(query, limit));
+    }
+
+    // Задачи читаются курсором и пишутся в ответ пачками, метки пачки - одним запросом.
+    // Строки сразу превращаются в TaskView, поэтому память не растет с размером выгрузки.
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasks(final Predicate predicate, final boolean ndjson, final OutputStream out)
+            throws IOException {
+        try (Stream<TaskView> tasks = taskRepository.streamViews(predicate);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            final Iterator<TaskView> iterator = tasks.iterator();
+            final List<TaskView> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == EXPORT_BATCH_SIZE || !iterator.hasNext()) {
+                    writeBatch(batch, ndjson, generator);
+                    batch.clear();
+                }
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    private void writeBatch(final List<TaskView> batch, final boolean ndjson, final JsonGenerator generator)
+            throws IOException {
+        final Map<Long, Set<LabelView>> labels = taskRepository.findLabelViews(
+                batch.stream().map(TaskView::id).toList());
+        for (final TaskView task : batch) {
+            generator.writeObject(task.withLabels(labels.getOrDefault(task.id(), Set.of())));
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        }
     }
 
+    // Автор при изменении не меняется, поэтому текущий пользователь здесь не нужен
     private void merge(final Task task, final TaskDto dto) {
-        final Task newTask = buildTask(dto);
-        task.setName(newTask.getName());
-        task.setDescription(newTask.getDescription());
-        task.setTaskStatus(newTask.getTaskStatus());
-        task.setExecutor(newTask.getExecutor());
-        task.setLabels(newTask.getLabels());
+        resolveKnownReferences(dto).applyTo(task, dto);
     }
 
     private Task buildTask(final TaskDto taskDto) {
-        final User currentUser = userService.getCurrentUser();
-
-        return Task.builder()
-                .name(taskDto.getName())
-                .description(taskDto.getDescription())
-                .author(currentUser)
-                .executor(userRepository.findById(taskDto.getExecutorId()).get())
-                .taskStatus(taskStatusRepository.findById(taskDto.getTaskStatusId()).get())
-                .labels(taskDto.getLabelIds().stream()
-                        .map(id -> labelRepository.findById(id).get())
-                        .collect(Collectors.toSet()))
-                .build();
+        return resolveKnownReferences(taskDto).toTask(taskDto, userService.getCurrentUser());
+    }
+
+    private References resolveKnownReferences(final TaskDto taskDto) {
+        final References references = resolveReferences(List.of(taskDto));
+        final List<FieldError> errors = references.unknown(taskDto);
+        if (!errors.isEmpty()) {
+            throw new UnknownReferencesException(errors);
+        }
+        return references;
+    }
+
+    // Ссылки всех DTO - по одному запросу на статусы, исполнителей и метки
+    private References resolveReferences(final Collection<TaskDto> dtos) {
+        final Set<Long> statusIds = new HashSet<>();
+        final Set<Long> executorIds = new HashSet<>();
+        final Set<Long> labelIds = new HashSet<>();
+        for (final TaskDto dto : dtos) {
+            if (dto.getTaskStatusId() != null) {
+                statusIds.add(dto.getTaskStatusId());
+            }
+            if (dto.getExecutorId() != null) {
+                executorIds.add(dto.getExecutorId());
+            }
+            if (dto.getLabelIds() != null) {
+                labelIds.addAll(dto.getLabelIds());
+            }
+        }
+        return new References(
+                byId(taskStatusRepository.findAllById(statusIds), TaskStatus::getId),
+                byId(userRepository.findAllById(executorIds), User::getId),
+                byId(labelRepository.findAllById(labelIds), Label::getId)
+        );
+    }
+
+    private List<FieldError> validate(final TaskDto dto) {
+        if (dto == null) {
+            return List.of(new FieldError(DTO_NAME, DTO_NAME, "must not be null"));
+        }
+        return validator.validate(dto).stream()
+                .map(violation -> new FieldError(DTO_NAME, violation.getPropertyPath().toString(),
+                        violation.getInvalidValue(), false, null, null, violation.getMessage()))
+                .toList();
+    }
+
+    private static <T> Map<Long, T> byId(final List<T> entities, final Function<T, Long> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static FieldError unknown(final String field, final Object value) {
+        return new FieldError(DTO_NAME, field, value, false, null, null, "Not found: " + value);
+    }
+
+    private record References(Map<Long, TaskStatus> statuses, Map<Long, User> executors, Map<Long, Label> labels) {
+
+        List<FieldError> unknown(final TaskDto dto) {
+            final List<FieldError> errors = new ArrayList<>();
+            if (!statuses.containsKey(dto.getTaskStatusId())) {
+                errors.add(TaskServiceImpl.unknown("taskStatusId", dto.getTaskStatusId()));
+            }
+            if (dto.getExecutorId() != null && !executors.containsKey(dto.getExecutorId())) {
+                errors.add(TaskServiceImpl.unknown("executorId", dto.getExecutorId()));
+            }
+            final Set<Long> missingLabels = new TreeSet<>(labelIds(dto));
+            missingLabels.removeAll(labels.keySet());
+            if (!missingLabels.isEmpty()) {
+                errors.add(TaskServiceImpl.unknown("labelIds", missingLabels));
+            }
+            return errors;
+        }
+
+        Task toTask(final TaskDto dto, final User author) {
+            final Task task = Task.builder()
+                    .author(author)
+                    .build();
+            applyTo(task, dto);
+            return task;
+        }
+
+        void applyTo(final Task task, final TaskDto dto) {
+            task.setName(dto.getName());
+            task.setDescription(dto.getDescription());
+            task.setTaskStatus(statuses.get(dto.getTaskStatusId()));
+            task.setExecutor(dto.getExecutorId() == null ? null : executors.get(dto.getExecutorId()));
+            task.setLabels(labelIds(dto).stream().map(labels::get).collect(Collectors.toSet()));
+        }
+
+        private static Set<Long> labelIds(final TaskDto dto) {
+            return dto.getLabelIds() == null ? Set.of() : dto.getLabelIds();
+        }
     }
 
 }
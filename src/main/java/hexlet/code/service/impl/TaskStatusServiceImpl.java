@@ -1,6 +1,7 @@
 package hexlet.code.service.impl;
 
 import hexlet.code.dto.TaskStatusDto;
+import hexlet.code.exception.VersionMismatchException;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.service.TaskStatusService;
@@ -21,8 +22,9 @@ public class TaskStatusServiceImpl implements TaskStatusService {
     }
 
     @Override
-    public TaskStatus updateTaskStatus(long id, TaskStatusDto statusDto) {
+    public TaskStatus updateTaskStatus(long id, TaskStatusDto statusDto, Long expectedVersion) {
         TaskStatus taskStatus = taskStatusRepository.findById(id).get();
+        VersionMismatchException.check(expectedVersion, taskStatus.getVersion());
         taskStatus.setName(statusDto.getName());
         return taskStatusRepository.save(taskStatus);
     }
@@ -1,11 +1,15 @@
 package hexlet.code.service.impl;
 
+import hexlet.code.component.CurrentUser;
+import hexlet.code.component.PasswordHashUpgrader;
+import hexlet.code.config.datasource.ReadFromPrimary;
+import hexlet.code.config.security.AppUserDetails;
 import hexlet.code.dto.UserDto;
+import hexlet.code.exception.VersionMismatchException;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.service.UserService;
 import lombok.AllArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -22,6 +26,8 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashUpgrader passwordHashUpgrader;
+    private final CurrentUser currentUser;
 
     @Override
     public User createNewUser(final UserDto userDto) {
@@ -34,8 +40,9 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     }
 
     @Override
-    public User updateUser(final long id, final UserDto userDto) {
+    public User updateUser(final long id, final UserDto userDto, final Long expectedVersion) {
         final User userForUpdate = userRepository.findById(id).get();
+        VersionMismatchException.check(expectedVersion, userForUpdate.getVersion());
         userForUpdate.setEmail(userDto.getEmail());
         userForUpdate.setFirstName(userDto.getFirstName());
         userForUpdate.setLastName(userDto.getLastName());
@@ -45,15 +52,21 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     @Override
     public String getCurrentUserName() {
-        return SecurityContextHolder.getContext().getAuthentication().getName();
+        return currentUser.getEmail();
     }
 
+    // Пользователь по токену и при входе читается из основной БД: сразу после регистрации
+    // его может еще не быть в реплике
     @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public User getCurrentUser() {
-        return userRepository.findByEmail(getCurrentUserName()).get();
+        return currentUser.getUser();
     }
 
     @Override
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(final String username) throws UsernameNotFoundException {
         return userRepository.findByEmail(username)
                 .map(this::buildSpringUser)
@@ -61,10 +74,12 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     }
 
     private UserDetails buildSpringUser(final User user) {
-        return new org.springframework.security.core.userdetails.User(
+        return new AppUserDetails(
+                user.getId(),
                 user.getEmail(),
                 user.getPassword(),
-                DEFAULT_AUTHORITIES
+                DEFAULT_AUTHORITIES,
+                passwordHashUpgrader.isOutdated(user.getPassword()) ? user.getPassword() : null
         );
     }
 
@@ -0,0 +1,78 @@
+package hexlet.code.component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Map;
+
+import static hexlet.code.utils.TestUtils.TEST_EMAIL;
+import static io.jsonwebtoken.SignatureAlgorithm.HS256;
+import static io.jsonwebtoken.impl.TextCodec.BASE64;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTHelperTest {
+
+    private static final String ISSUER = "task-manager";
+    private static final String SECRET = "secret";
+    private static final long EXPIRATION_SEC = 86400L;
+
+    private final JWTHelper jwtHelper = new JWTHelper(ISSUER, EXPIRATION_SEC, 300L, SECRET);
+
+    @Test
+    void verifyTokenIssuedByJjwt() {
+        final String token = jjwtToken(ISSUER, System.currentTimeMillis() + EXPIRATION_SEC * 1000);
+
+        final TokenClaims claims = jwtHelper.verify(token);
+
+        assertThat(claims.username()).isEqualTo(TEST_EMAIL);
+        assertThat(claims.issuer()).isEqualTo(ISSUER);
+        assertThat(claims.expiration()).isNotNull();
+    }
+
+    @Test
+    void jjwtAcceptsIssuedToken() {
+        final String token = jwtHelper.expiring(Map.of("username", TEST_EMAIL));
+
+        final Claims claims = Jwts.parser()
+                .requireIssuer(ISSUER)
+                .setSigningKey(BASE64.encode(SECRET))
+                .parseClaimsJws(token)
+                .getBody();
+
+        assertThat(claims.get("username")).isEqualTo(TEST_EMAIL);
+        assertThat(claims.getExpiration()).isAfter(new Date());
+    }
+
+    @Test
+    void rejectInvalidTokens() {
+        final String token = jwtHelper.expiring(Map.of("username", TEST_EMAIL));
+        final String tampered = token.substring(0, token.length() - 2) + "AA";
+        final String otherKey = new JWTHelper(ISSUER, EXPIRATION_SEC, 300L, "other").expiring(Map.of());
+
+        assertThatThrownBy(() -> jwtHelper.verify(tampered)).isInstanceOf(SignatureException.class);
+        assertThatThrownBy(() -> jwtHelper.verify(otherKey)).isInstanceOf(SignatureException.class);
+        assertThatThrownBy(() -> jwtHelper.verify(jjwtToken("other", System.currentTimeMillis() + 60_000)))
+                .isInstanceOf(IncorrectClaimException.class);
+        assertThatThrownBy(() -> jwtHelper.verify(jjwtToken(ISSUER, System.currentTimeMillis() - 3_600_000)))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    private static String jjwtToken(final String issuer, final long expiresAt) {
+        final Claims claims = Jwts.claims();
+        claims.setIssuer(issuer);
+        claims.setIssuedAt(new Date());
+        claims.put("username", TEST_EMAIL);
+        claims.setExpiration(new Date(expiresAt));
+        return Jwts.builder()
+                .signWith(HS256, BASE64.encode(SECRET))
+                .setClaims(claims)
+                .compact();
+    }
+
+}
@@ -0,0 +1,79 @@
+package hexlet.code.component;
+
+import hexlet.code.dto.IdCount;
+import hexlet.code.dto.TaskStats;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_COMMITTED;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_ROLLED_BACK;
+
+class TaskCountersTest {
+
+    private static final Long STATUS_ID = 1L;
+    private static final TaskSnapshot TASK = new TaskSnapshot(1L, "task", null, STATUS_ID, 1L, null, Set.of());
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskCounters counters = new TaskCounters(taskRepository, mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changeVisibleToReconcileBeforeItsDeltaIsCountedOnce() {
+        counters.onTaskChanged(new TaskChangedEvent(null, TASK));
+        // запись уже закоммичена и попадает в выборку сверки, а дельта применяется после нее
+        when(taskRepository.count()).thenReturn(1L);
+        when(taskRepository.countByStatus()).thenReturn(List.of(new IdCount(STATUS_ID, 1L)));
+        counters.reconcile();
+        completeTransaction(STATUS_COMMITTED);
+
+        final TaskStats stats = counters.snapshot();
+        assertThat(stats.total()).isEqualTo(1);
+        assertThat(stats.unassigned()).isEqualTo(1);
+        assertThat(stats.byStatus()).isEqualTo(Map.of(STATUS_ID, 1L));
+
+        counters.reconcile();
+        assertThat(counters.snapshot()).isEqualTo(stats);
+    }
+
+    @Test
+    void rolledBackChangeIsNotCounted() {
+        counters.onTaskChanged(new TaskChangedEvent(null, TASK));
+        completeTransaction(STATUS_ROLLED_BACK);
+
+        assertThat(counters.snapshot().total()).isZero();
+        assertThat(counters.snapshot().byStatus()).isEmpty();
+    }
+
+    private static void completeTransaction(final int status) {
+        final List<TransactionSynchronization> synchronizations =
+                TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+}
@@ -0,0 +1,113 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskEventHubTest {
+
+    private static final int BUFFER_SIZE = 4;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskEventHub hub = new TaskEventHub(new ObjectMapper(), meterRegistry, 2, BUFFER_SIZE, 60_000L);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hub.destroy();
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWithoutBlockingPublisher() throws Exception {
+        final RecordingEmitter slow = new RecordingEmitter(release);
+        final RecordingEmitter fast = new RecordingEmitter(null);
+        hub.register(slow, null, null);
+        hub.register(fast, null, null);
+
+        long publishNanos = 0;
+        for (int id = 1; id <= BUFFER_SIZE * 3; id++) {
+            final long start = System.nanoTime();
+            hub.onTaskChanged(created(id, 1L));
+            publishNanos += System.nanoTime() - start;
+            // быстрый подписчик успевает за публикацией, медленный висит на первом событии
+            awaitSent(fast, id);
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(publishNanos)).isLessThan(1_000);
+        assertThat(fast.sent).hasSize(BUFFER_SIZE * 3);
+        assertThat(meterRegistry.get("tasks.events.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("tasks.events.subscribers").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void eventsAreFilteredByStatusAndExecutor() throws Exception {
+        final RecordingEmitter byStatus = new RecordingEmitter(null);
+        final RecordingEmitter byExecutor = new RecordingEmitter(null);
+        hub.register(byStatus, 1L, null);
+        hub.register(byExecutor, null, 7L);
+
+        hub.onTaskChanged(created(1L, 1L));
+        hub.onTaskChanged(created(2L, 2L));
+        // задача ушла из статуса 1 - подписчик на статус 1 об этом узнает
+        hub.onTaskChanged(new TaskChangedEvent(snapshot(1L, 1L), snapshot(1L, 2L)));
+
+        awaitSent(byStatus, 2);
+        assertThat(byStatus.sent).hasSize(2);
+        assertThat(byExecutor.sent).isEmpty();
+    }
+
+    private static TaskChangedEvent created(final long id, final long statusId) {
+        return new TaskChangedEvent(null, snapshot(id, statusId));
+    }
+
+    private static TaskSnapshot snapshot(final long id, final long statusId) {
+        return new TaskSnapshot(id, "task" + id, null, statusId, 1L, null, Set.of());
+    }
+
+    private static void awaitSent(final RecordingEmitter emitter, final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (emitter.sent.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Первая отправка в медленный emitter висит, пока тест не отпустит
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        RecordingEmitter(final CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(final SseEventBuilder event) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.add(event);
+        }
+    }
+
+}
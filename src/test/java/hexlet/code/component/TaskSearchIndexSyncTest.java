@@ -0,0 +1,61 @@
+package hexlet.code.component;
+
+import hexlet.code.dto.TaskText;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.repository.TaskRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskSearchIndexSyncTest {
+
+    private static final int LIMIT = 10;
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskSearchIndex index = new TaskSearchIndex();
+    private final TaskSearchIndexSync sync = new TaskSearchIndexSync(taskRepository, index);
+
+    @Test
+    void changesCommittedDuringRebuildAreNotLost() {
+        sync.onTaskChanged(new TaskChangedEvent(null, task(1L, "alpha")));
+        sync.onTaskChanged(new TaskChangedEvent(null, task(2L, "beta")));
+        sync.onTaskChanged(new TaskChangedEvent(null, task(3L, "delta")));
+
+        // после первой строки задачу 1 переименовывают, а задачу 3 удаляют,
+        // но выборка уже читает их по старому снимку
+        final Stream<TaskText> rows = Stream.of(
+                new TaskText(2L, "beta", null),
+                new TaskText(1L, "alpha", null),
+                new TaskText(3L, "delta", null)
+        ).peek(row -> {
+            if (row.id() == 2L) {
+                sync.onTaskChanged(new TaskChangedEvent(task(1L, "alpha"), task(1L, "gamma")));
+                sync.onTaskChanged(new TaskChangedEvent(task(3L, "delta"), null));
+            }
+        });
+        when(taskRepository.streamTexts()).thenReturn(rows);
+
+        sync.rebuild();
+
+        assertThat(index.search("alpha", LIMIT)).isEmpty();
+        assertThat(index.search("gamma", LIMIT)).containsExactly(1L);
+        assertThat(index.search("beta", LIMIT)).containsExactly(2L);
+        assertThat(index.search("delta", LIMIT)).isEmpty();
+
+        // после подмены события снова идут прямо в индекс
+        sync.onTaskChanged(new TaskChangedEvent(task(2L, "beta"), task(2L, "epsilon")));
+        assertThat(index.search("beta", LIMIT)).isEmpty();
+        assertThat(index.search("epsilon", LIMIT)).containsExactly(2L);
+    }
+
+    private static TaskSnapshot task(final Long id, final String name) {
+        return new TaskSnapshot(id, name, null, 1L, 1L, null, Set.of());
+    }
+
+}
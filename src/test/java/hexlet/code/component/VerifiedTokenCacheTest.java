@@ -0,0 +1,75 @@
+package hexlet.code.component;
+
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static hexlet.code.utils.TestUtils.TEST_EMAIL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class VerifiedTokenCacheTest {
+
+    private static final String ISSUER = "task-manager";
+    private static final String SECRET = "secret";
+    private static final long EXPIRATION_SEC = 86400L;
+    // проверка подписи допускает расхождение часов, поэтому просроченный токен без кэша еще принимается
+    private static final long CLOCK_SKEW_SEC = 300L;
+
+    @Test
+    void cachedTokenSkipsSignatureCheck() {
+        final JWTHelper jwtHelper = spy(new JWTHelper(ISSUER, EXPIRATION_SEC, CLOCK_SKEW_SEC, SECRET));
+        final VerifiedTokenCache cache = cacheFor(jwtHelper);
+        final String token = jwtHelper.expiring(Map.of("username", TEST_EMAIL));
+
+        final TokenClaims first = cache.verify(token);
+        final TokenClaims second = cache.verify(token);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(second.username()).isEqualTo(TEST_EMAIL);
+        verify(jwtHelper, times(1)).verify(token);
+    }
+
+    @Test
+    void otherTokensAreVerifiedSeparately() {
+        final JWTHelper jwtHelper = spy(new JWTHelper(ISSUER, EXPIRATION_SEC, CLOCK_SKEW_SEC, SECRET));
+        final VerifiedTokenCache cache = cacheFor(jwtHelper);
+        final String token = jwtHelper.expiring(Map.of("username", TEST_EMAIL));
+        final String other = jwtHelper.expiring(Map.of("username", "other@mail.ru"));
+        final String tampered = token.substring(0, token.length() - 2) + "AA";
+        cache.verify(token);
+
+        assertThat(cache.verify(other).username()).isEqualTo("other@mail.ru");
+        assertThatThrownBy(() -> cache.verify(tampered)).isInstanceOf(SignatureException.class);
+        // отвергнутый токен не кэшируется
+        assertThatThrownBy(() -> cache.verify(tampered)).isInstanceOf(SignatureException.class);
+        verify(jwtHelper, times(1)).verify(other);
+        verify(jwtHelper, times(2)).verify(tampered);
+    }
+
+    @Test
+    void entryExpiresWithToken() throws InterruptedException {
+        final JWTHelper jwtHelper = spy(new JWTHelper(ISSUER, 1L, CLOCK_SKEW_SEC, SECRET));
+        final VerifiedTokenCache cache = cacheFor(jwtHelper);
+        final String token = jwtHelper.expiring(Map.of("username", TEST_EMAIL));
+        final long expiresAtMillis = TimeUnit.SECONDS.toMillis(cache.verify(token).expiration());
+
+        cache.verify(token);
+        verify(jwtHelper, times(1)).verify(token);
+
+        Thread.sleep(Math.max(0, expiresAtMillis - System.currentTimeMillis()) + 50);
+        cache.verify(token);
+        verify(jwtHelper, times(2)).verify(token);
+    }
+
+    private static VerifiedTokenCache cacheFor(final JWTHelper jwtHelper) {
+        return new VerifiedTokenCache(jwtHelper, new SimpleMeterRegistry(), 100);
+    }
+
+}
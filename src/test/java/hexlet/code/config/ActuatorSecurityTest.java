@@ -0,0 +1,48 @@
+package hexlet.code.config;
+
+import hexlet.code.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Map;
+
+import static hexlet.code.config.SpringConfigForTest.TEST_PROFILE;
+import static hexlet.code.config.security.SecurityConfig.ACTUATOR;
+import static hexlet.code.utils.TestUtils.TEST_EMAIL;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Как в основной конфигурации: API под /api, actuator - вне его
+@AutoConfigureMockMvc
+@ActiveProfiles(TEST_PROFILE)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, classes = SpringConfigForTest.class, properties = {
+    "base-url=/api",
+    "management.endpoints.web.exposure.include=health,metrics"
+})
+public class ActuatorSecurityTest {
+
+    @Autowired
+    private TestUtils utils;
+
+    @Test
+    public void healthIsPublic() throws Exception {
+        utils.perform(get(ACTUATOR + "/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void metricsRequireToken() throws Exception {
+        utils.perform(get(ACTUATOR + "/metrics")).andExpect(status().isUnauthorized());
+        utils.perform(get(ACTUATOR + "/metrics/jvm.memory.used")).andExpect(status().isUnauthorized());
+
+        utils.performWithClaims(get(ACTUATOR + "/metrics"), Map.of("username", TEST_EMAIL))
+                .andExpect(status().isOk());
+    }
+
+}
@@ -0,0 +1,137 @@
+package hexlet.code.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import hexlet.code.config.datasource.ReadReplicaRoutingDataSource;
+import hexlet.code.dto.UserDto;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.utils.TestUtils;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static hexlet.code.config.SpringConfigForTest.TEST_PROFILE;
+import static hexlet.code.controller.TaskController.IMPORTS;
+import static hexlet.code.controller.TaskController.TASK_CONTROLLER_PATH;
+import static hexlet.code.controller.TaskStatusController.STATUS_CONTROLLER_PATH;
+import static hexlet.code.utils.TestUtils.TEST_EMAIL;
+import static hexlet.code.utils.TestUtils.TEST_STATUS;
+import static hexlet.code.utils.TestUtils.fromJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Основная БД и реплика - две разные H2 без репликации: по содержимому видно, куда ушел запрос
+@AutoConfigureMockMvc
+@ActiveProfiles(TEST_PROFILE)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, classes = SpringConfigForTest.class, properties = {
+    "spring.datasource.replica.enabled=true",
+    "spring.datasource.replica.jdbc-url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+    "spring.datasource.replica.read-your-writes-ms=60000"
+})
+public class ReadReplicaRoutingTest {
+
+    private static final String REPLICA_STATUS = "onReplica";
+    private static final String OTHER_EMAIL = "other@mail.ru";
+    private static final String READER_EMAIL = "reader@mail.ru";
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestUtils utils;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        final SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(replicaDataSource);
+        liquibase.setChangeLog("classpath:db/changelog/changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("insert into task_statuses (name, created_at) values (?, current_timestamp)", REPLICA_STATUS);
+        utils.regDefaultUser();
+    }
+
+    @AfterEach
+    public void clear() {
+        utils.tearDown();
+        replica.update("delete from task_statuses");
+    }
+
+    @Test
+    public void readsGoToReplicaExceptAfterOwnWrite() throws Exception {
+        assertThat(getStatusNames(TEST_EMAIL)).containsExactly(REPLICA_STATUS);
+
+        utils.addDefaultStatus().andExpect(status().isCreated());
+
+        // свою запись пользователь видит сразу, остальные - когда ее доставит реплика
+        assertThat(getStatusNames(TEST_EMAIL)).containsExactly(TEST_STATUS);
+        assertThat(getStatusNames(OTHER_EMAIL)).containsExactly(REPLICA_STATUS);
+    }
+
+    @Test
+    public void readsWithoutWritesDoNotPinUserToPrimary() throws Exception {
+        // отдельный пользователь: отметки о записях живут дольше одного теста
+        utils.regUser(new UserDto(READER_EMAIL, "Reader", "Reader", "pwd"))
+                .andExpect(status().isCreated());
+
+        utils.perform(get(TASK_CONTROLLER_PATH + IMPORTS), READER_EMAIL)
+                .andExpect(status().isOk());
+
+        assertThat(getStatusNames(READER_EMAIL)).containsExactly(REPLICA_STATUS);
+    }
+
+    @Test
+    public void readFromPrimaryKeepsReadOnlyTransactionOnPrimary() {
+        final TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        final JdbcTemplate routed = new JdbcTemplate(dataSource);
+        final String sql = "select count(*) from task_statuses where name = '" + REPLICA_STATUS + "'";
+
+        final Long onReplica = readOnly.execute(status -> routed.queryForObject(sql, Long.class));
+        final Long onPrimary = ReadReplicaRoutingDataSource.readFromPrimary(() ->
+                readOnly.execute(status -> routed.queryForObject(sql, Long.class)));
+
+        assertThat(onReplica).isEqualTo(1L);
+        assertThat(onPrimary).isZero();
+    }
+
+    private List<String> getStatusNames(final String byUser) throws Exception {
+        final String body = utils.perform(get(STATUS_CONTROLLER_PATH), byUser)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return fromJson(body, new TypeReference<List<TaskStatus>>() { }).stream()
+                .map(TaskStatus::getName)
+                .toList();
+    }
+
+}
@@ -27,6 +27,8 @@ import static hexlet.code.utils.TestUtils.asJson;
 import static hexlet.code.utils.TestUtils.fromJson;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -126,6 +128,30 @@ public class LabelControllerTest {
         assertEquals(updatedLabel.getId(), id);
     }
 
+    @Test
+    public void updateLabelWithIfMatchTest() throws Exception {
+        utils.addDefaultLabel();
+        final Long id = labelRepository.findAll().get(0).getId();
+        final String etag = utils.perform(get(LABEL_CONTROLLER_PATH + ID, id), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+
+        final var update = put(LABEL_CONTROLLER_PATH + ID, id)
+                .header(IF_MATCH, etag)
+                .content(asJson(new LabelDto("newName")))
+                .contentType(APPLICATION_JSON);
+        utils.perform(update, TEST_EMAIL).andExpect(status().isOk());
+
+        final var staleUpdate = put(LABEL_CONTROLLER_PATH + ID, id)
+                .header(IF_MATCH, etag)
+                .content(asJson(new LabelDto("lostName")))
+                .contentType(APPLICATION_JSON);
+        utils.perform(staleUpdate, TEST_EMAIL).andExpect(status().isPreconditionFailed());
+        assertEquals("newName", labelRepository.findById(id).get().getName());
+    }
+
     @Test
     public void deleteLabelTest() throws Exception {
         utils.addDefaultLabel();
@@ -1,8 +1,19 @@
 package hexlet.code.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import hexlet.code.component.TaskCounters;
+import hexlet.code.component.TaskQueryCache;
 import hexlet.code.config.SpringConfigForTest;
+import hexlet.code.dto.TaskBulkUpdateDto;
+import hexlet.code.dto.TaskChanges;
+import hexlet.code.dto.TaskChangesToken;
 import hexlet.code.dto.TaskDto;
+import hexlet.code.dto.TaskImportError;
+import hexlet.code.dto.TaskImportStatus;
+import hexlet.code.dto.TaskStatusDto;
+import hexlet.code.dto.TaskStats;
+import hexlet.code.dto.UserDto;
+import hexlet.code.model.Label;
 import hexlet.code.model.Task;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.model.User;
@@ -10,7 +21,9 @@ import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.utils.QueryCounter;
 import hexlet.code.utils.TestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,14 +33,35 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
+import static hexlet.code.component.IdempotentRequests.IDEMPOTENCY_KEY;
+import static hexlet.code.component.IdempotentRequests.REPLAYED;
+import static hexlet.code.component.JWTHelper.USER_ID;
 import static hexlet.code.config.SpringConfigForTest.TEST_PROFILE;
+import static hexlet.code.controller.TaskController.BULK;
+import static hexlet.code.controller.TaskController.CHANGES;
+import static hexlet.code.controller.TaskController.EVENTS;
+import static hexlet.code.controller.TaskController.EXPORT;
 import static hexlet.code.controller.TaskController.ID;
+import static hexlet.code.controller.TaskController.IMPORTS;
+import static hexlet.code.controller.TaskController.NEXT_CURSOR;
+import static hexlet.code.controller.TaskController.SEARCH;
+import static hexlet.code.controller.TaskController.STATS;
 import static hexlet.code.controller.TaskController.TASK_CONTROLLER_PATH;
+import static hexlet.code.controller.TaskController.TEXT_CSV_VALUE;
+import static hexlet.code.controller.TaskStatusController.STATUS_CONTROLLER_PATH;
 import static hexlet.code.utils.TestUtils.TEST_DESCRIPTION;
 import static hexlet.code.utils.TestUtils.TEST_EMAIL;
 import static hexlet.code.utils.TestUtils.TEST_FIRST_NAME;
@@ -36,12 +70,26 @@ import static hexlet.code.utils.TestUtils.TEST_STATUS;
 import static hexlet.code.utils.TestUtils.TEST_TASK_NAME;
 import static hexlet.code.utils.TestUtils.asJson;
 import static hexlet.code.utils.TestUtils.fromJson;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -65,6 +113,12 @@ public class TaskControllerTest {
     @Autowired
     private TestUtils utils;
 
+    @Autowired
+    private TaskCounters taskCounters;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     public void beforeEach() throws Exception {
         utils.regDefaultUser();
@@ -97,6 +151,20 @@ public class TaskControllerTest {
         assertEquals(task.getAuthor().getEmail(), user.getEmail());
     }
 
+    @Test
+    public void createTaskByDeletedUserTest() throws Exception {
+        final Long userId = utils.getUserByEmail(TEST_EMAIL).getId();
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        userRepository.deleteById(userId);
+
+        final var request = post(TASK_CONTROLLER_PATH)
+                .content(asJson(new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, null, statusId, Set.of())))
+                .contentType(APPLICATION_JSON);
+        utils.performWithClaims(request, Map.of("username", TEST_EMAIL, USER_ID, userId))
+                .andExpect(status().isUnauthorized());
+        assertEquals(0, taskRepository.count());
+    }
+
     @Test
     public void getTaskByIdTest() throws Exception {
         utils.addDefaultTask().andExpect(status().isCreated());
@@ -246,6 +314,73 @@ public class TaskControllerTest {
         assertEquals(actualTask.getDescription(), expectTaskDto.getDescription());
     }
 
+    @Test
+    public void conditionalGetTaskTest() throws Exception {
+        utils.addDefaultTask();
+        final Task task = taskRepository.findAll().get(0);
+        final String etag = utils.perform(get(TASK_CONTROLLER_PATH + ID, task.getId()), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        final String listEtag = utils.perform(get(TASK_CONTROLLER_PATH), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertThat(etag).isNotNull();
+        assertThat(listEtag).isNotNull();
+
+        utils.perform(get(TASK_CONTROLLER_PATH + ID, task.getId()).header(IF_NONE_MATCH, etag), TEST_EMAIL)
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        utils.perform(get(TASK_CONTROLLER_PATH).header(IF_NONE_MATCH, listEtag), TEST_EMAIL)
+                .andExpect(status().isNotModified());
+
+        // переименование статуса меняет ответ по задаче, хотя сама задача не менялась
+        final var renameStatus = put(STATUS_CONTROLLER_PATH + ID, task.getTaskStatus().getId())
+                .content(asJson(new TaskStatusDto("renamed")))
+                .contentType(APPLICATION_JSON);
+        utils.perform(renameStatus, TEST_EMAIL).andExpect(status().isOk());
+        utils.perform(get(TASK_CONTROLLER_PATH + ID, task.getId()).header(IF_NONE_MATCH, etag), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, not(etag)));
+        utils.perform(get(TASK_CONTROLLER_PATH).header(IF_NONE_MATCH, listEtag), TEST_EMAIL)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void updateTaskWithIfMatchTest() throws Exception {
+        utils.addDefaultTask();
+        final Task task = taskRepository.findAll().get(0);
+        final String etag = utils.perform(get(TASK_CONTROLLER_PATH + ID, task.getId()), TEST_EMAIL)
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        final TaskDto dto = new TaskDto("newName", TEST_DESCRIPTION, null, task.getTaskStatus().getId(), Set.of());
+
+        final var update = put(TASK_CONTROLLER_PATH + ID, task.getId())
+                .header(IF_MATCH, etag)
+                .content(asJson(dto))
+                .contentType(APPLICATION_JSON);
+        utils.perform(update, TEST_EMAIL).andExpect(status().isOk());
+
+        dto.setName("lostName");
+        final var staleUpdate = put(TASK_CONTROLLER_PATH + ID, task.getId())
+                .header(IF_MATCH, etag)
+                .content(asJson(dto))
+                .contentType(APPLICATION_JSON);
+        utils.perform(staleUpdate, TEST_EMAIL).andExpect(status().isPreconditionFailed());
+        assertEquals("newName", taskRepository.findById(task.getId()).get().getName());
+
+        final var bulkUpdate = patch(TASK_CONTROLLER_PATH + BULK)
+                .content(asJson(new TaskBulkUpdateDto(Set.of(task.getId()), null, task.getAuthor().getId())))
+                .contentType(APPLICATION_JSON);
+        final Long versionBefore = taskRepository.findById(task.getId()).get().getVersion();
+        utils.perform(bulkUpdate, TEST_EMAIL).andExpect(status().isOk());
+        assertEquals(versionBefore + 1, taskRepository.findById(task.getId()).get().getVersion());
+    }
+
     @Test
     public void deleteTaskTest() throws Exception {
         utils.addDefaultTask();
@@ -259,4 +394,602 @@ public class TaskControllerTest {
         assertEquals(0, taskRepository.count());
     }
 
+    @Test
+    public void deleteMissingTaskTest() throws Exception {
+        utils.addDefaultTask();
+        final Long id = taskRepository.findAll().get(0).getId();
+
+        utils.perform(delete(TASK_CONTROLLER_PATH + ID, id + 1), TEST_EMAIL)
+                .andExpect(status().isNotFound());
+        assertEquals(1, taskRepository.count());
+    }
+
+    @Test
+    public void createTaskQueryCountDoesNotDependOnLabels() throws Exception {
+        final Long userId = userRepository.findAll().get(0).getId();
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Set<Long> labelIds = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            labelIds.add(labelRepository.save(new Label(null, TEST_LABEL_NAME + i, null, null)).getId());
+        }
+
+        final Set<Long> oneLabel = Set.of(labelIds.iterator().next());
+        // первый запрос заполняет кэш второго уровня, сравниваются запросы с прогретым кэшем
+        postTask(new TaskDto(TEST_TASK_NAME + 1, TEST_DESCRIPTION, userId, statusId, oneLabel))
+                .andExpect(status().isCreated());
+        QueryCounter.reset();
+        postTask(new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, userId, statusId, oneLabel))
+                .andExpect(status().isCreated());
+        final int selectsForOneLabel = QueryCounter.selects();
+        assertThat(selectsForOneLabel).isPositive();
+
+        QueryCounter.reset();
+        postTask(new TaskDto(TEST_TASK_NAME + 2, TEST_DESCRIPTION, userId, statusId, labelIds))
+                .andExpect(status().isCreated());
+
+        assertEquals(selectsForOneLabel, QueryCounter.selects());
+        assertEquals(3, taskRepository.count());
+    }
+
+    @Test
+    public void createTaskWithIdempotencyKeyTest() throws Exception {
+        final Long userId = userRepository.findAll().get(0).getId();
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final TaskDto dto = new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, userId, statusId, Set.of());
+        final String first = postTask(dto, "key-1")
+                .andExpect(status().isCreated())
+                .andExpect(header().string(REPLAYED, "false"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        QueryCounter.reset();
+        postTask(dto, "key-1")
+                .andExpect(status().isCreated())
+                .andExpect(header().string(REPLAYED, "true"))
+                .andExpect(content().json(first, true));
+        assertEquals(0, QueryCounter.inserts());
+        assertEquals(1, taskRepository.count());
+
+        postTask(new TaskDto(TEST_TASK_NAME + 2, TEST_DESCRIPTION, userId, statusId, Set.of()), "key-1")
+                .andExpect(status().isUnprocessableEntity());
+        postTask(dto, "key-2")
+                .andExpect(status().isCreated())
+                .andExpect(header().string(REPLAYED, "false"));
+        assertEquals(2, taskRepository.count());
+    }
+
+    @Test
+    public void createTaskWithUnknownReferencesTest() throws Exception {
+        final long missingId = Long.MAX_VALUE;
+        final TaskDto dto = new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, missingId, missingId,
+                Set.of(labelRepository.findAll().get(0).getId(), missingId));
+
+        final String body = postTask(dto)
+                .andExpect(status().isUnprocessableEntity())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(body).contains("taskStatusId", "executorId", "labelIds");
+        assertEquals(0, taskRepository.count());
+    }
+
+    @Test
+    public void getTasksByPagesTest() throws Exception {
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        for (int i = 0; i < 5; i++) {
+            postTask(new TaskDto(TEST_TASK_NAME + i, TEST_DESCRIPTION, null, statusId, Set.of()))
+                    .andExpect(status().isCreated());
+        }
+        final List<Long> expectedIds = taskRepository.findAll().stream().map(Task::getId).sorted().toList();
+
+        final List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            final var request = get(TASK_CONTROLLER_PATH + "?taskStatus={status}&size=2", statusId);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            final var response = utils.perform(request, TEST_EMAIL)
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse();
+            final List<Task> tasks = fromJson(response.getContentAsString(), new TypeReference<>() {
+            });
+            tasks.forEach(task -> ids.add(task.getId()));
+            cursor = response.getHeader(NEXT_CURSOR);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(expectedIds, ids);
+    }
+
+    @Test
+    public void getTasksWithInvalidCursorTest() throws Exception {
+        utils.perform(get(TASK_CONTROLLER_PATH).param("cursor", "not-a-cursor"), TEST_EMAIL)
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportTasksTest() throws Exception {
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        for (int i = 0; i < 3; i++) {
+            postTask(new TaskDto(TEST_TASK_NAME + i, TEST_DESCRIPTION, null, statusId, Set.of()));
+        }
+
+        final String json = utils.perform(get(TASK_CONTROLLER_PATH + EXPORT).accept(APPLICATION_JSON), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        final List<Task> tasks = fromJson(json, new TypeReference<>() {
+        });
+        assertEquals(3, tasks.size());
+
+        final String ndjson = utils.perform(get(TASK_CONTROLLER_PATH + EXPORT).accept(APPLICATION_NDJSON), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        final List<String> lines = ndjson.lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals(TEST_TASK_NAME + 0, fromJson(lines.get(0), new TypeReference<Task>() {
+        }).getName());
+    }
+
+    @Test
+    public void readTasksStatementCountTest() throws Exception {
+        final Long userId = userRepository.findAll().get(0).getId();
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Set<Long> labelIds = Set.of(
+                labelRepository.findAll().get(0).getId(),
+                labelRepository.save(new Label(null, TEST_LABEL_NAME + 2, null, null)).getId()
+        );
+        for (int i = 0; i < 5; i++) {
+            postTask(new TaskDto(TEST_TASK_NAME + i, TEST_DESCRIPTION, userId, statusId, labelIds));
+        }
+
+        QueryCounter.reset();
+        final String body = utils.perform(get(TASK_CONTROLLER_PATH), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        final List<Task> tasks = fromJson(body, new TypeReference<>() {
+        });
+        assertEquals(5, tasks.size());
+        assertThat(tasks).allMatch(task -> task.getLabels().size() == 2);
+        // страница задач и метки всей страницы
+        assertEquals(2, QueryCounter.selects());
+
+        QueryCounter.reset();
+        utils.perform(get(TASK_CONTROLLER_PATH + ID, tasks.get(0).getId()), TEST_EMAIL)
+                .andExpect(status().isOk());
+        assertEquals(1, QueryCounter.selects());
+    }
+
+    @Test
+    public void createTasksInBulkTest() throws Exception {
+        final Long userId = userRepository.findAll().get(0).getId();
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Set<Long> labelIds = Set.of(
+                labelRepository.findAll().get(0).getId(),
+                labelRepository.save(new Label(null, TEST_LABEL_NAME + 2, null, null)).getId()
+        );
+        final List<TaskDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            dtos.add(new TaskDto(TEST_TASK_NAME + i, TEST_DESCRIPTION, userId, statusId, labelIds));
+        }
+        dtos.set(10, new TaskDto("", TEST_DESCRIPTION, userId, statusId, labelIds));
+        dtos.set(20, new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, userId, Long.MAX_VALUE, labelIds));
+
+        QueryCounter.reset();
+        final var request = post(TASK_CONTROLLER_PATH + BULK).content(asJson(dtos)).contentType(APPLICATION_JSON);
+        final String body = utils.perform(request, TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        final List<Map<String, Object>> results = fromJson(body, new TypeReference<>() {
+        });
+        assertEquals(120, results.size());
+        assertThat(results.get(10).get("id")).isNull();
+        assertThat(results.get(20).get("errors").toString()).contains("taskStatusId");
+        assertThat(results.get(119).get("id")).isNotNull();
+        assertEquals(118, taskRepository.count());
+        // 118 задач и 236 строк tasks_labels батчами по 50
+        assertThat(QueryCounter.inserts()).isBetween(1, 3 + 5);
+    }
+
+    @Test
+    public void updateTasksInBulkTest() throws Exception {
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Long doneId = taskStatusRepository.save(new TaskStatus(null, "done", null, null)).getId();
+        for (int i = 0; i < 3; i++) {
+            postTask(new TaskDto(TEST_TASK_NAME + i, TEST_DESCRIPTION, null, statusId, Set.of()));
+        }
+        final UserDto otherUser = new UserDto("other@mail.ru", TEST_FIRST_NAME, TEST_FIRST_NAME, "password");
+        utils.regUser(otherUser);
+        final var otherTask = post(TASK_CONTROLLER_PATH)
+                .content(asJson(new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, null, statusId, Set.of())))
+                .contentType(APPLICATION_JSON);
+        utils.perform(otherTask, otherUser.getEmail()).andExpect(status().isCreated());
+
+        final var request = patch(TASK_CONTROLLER_PATH + BULK + "?taskStatus={status}", statusId)
+                .content(asJson(new TaskBulkUpdateDto(null, doneId, null)))
+                .contentType(APPLICATION_JSON);
+        final String body = utils.perform(request, TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(body).contains("\"updated\":3");
+        final List<Task> tasks = taskRepository.findAll();
+        assertThat(tasks)
+                .filteredOn(task -> task.getAuthor().getEmail().equals(TEST_EMAIL))
+                .allMatch(task -> task.getTaskStatus().getId().equals(doneId));
+        assertThat(tasks)
+                .filteredOn(task -> task.getAuthor().getEmail().equals(otherUser.getEmail()))
+                .allMatch(task -> task.getTaskStatus().getId().equals(statusId));
+
+        final var empty = patch(TASK_CONTROLLER_PATH + BULK)
+                .content(asJson(new TaskBulkUpdateDto(Set.of(tasks.get(0).getId()), null, null)))
+                .contentType(APPLICATION_JSON);
+        utils.perform(empty, TEST_EMAIL).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void searchTasksTest() throws Exception {
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        postTask(new TaskDto("Fix login page", "Login button is broken on mobile", null, statusId, Set.of()));
+        postTask(new TaskDto("Login", "Add remember me to login form", null, statusId, Set.of()));
+        postTask(new TaskDto("Write docs", "Describe the API", null, statusId, Set.of()));
+
+        assertThat(searchNames("LOGIN")).containsExactly("Login", "Fix login page");
+        assertThat(searchNames("login mobile")).containsExactly("Fix login page");
+        assertThat(searchNames("login docs")).isEmpty();
+
+        final Task docs = taskRepository.findAll().stream()
+                .filter(task -> task.getName().equals("Write docs"))
+                .findFirst()
+                .get();
+        final var update = put(TASK_CONTROLLER_PATH + ID, docs.getId())
+                .content(asJson(new TaskDto("Write docs", "Describe login flow", null, statusId, Set.of())))
+                .contentType(APPLICATION_JSON);
+        utils.perform(update, TEST_EMAIL).andExpect(status().isOk());
+        assertThat(searchNames("describe")).containsExactly("Write docs");
+        assertThat(searchNames("api")).isEmpty();
+
+        utils.perform(delete(TASK_CONTROLLER_PATH + ID, docs.getId()), TEST_EMAIL).andExpect(status().isOk());
+        assertThat(searchNames("login")).containsExactly("Login", "Fix login page");
+    }
+
+    @Test
+    public void getTaskStatsTest() throws Exception {
+        final Long userId = userRepository.findAll().get(0).getId();
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Long doneId = taskStatusRepository.save(new TaskStatus(null, "done", null, null)).getId();
+        final Long labelId = labelRepository.findAll().get(0).getId();
+        postTask(new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, userId, statusId, Set.of(labelId)))
+                .andExpect(status().isCreated());
+        postTask(new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, null, statusId, Set.of(labelId)))
+                .andExpect(status().isCreated());
+        postTask(new TaskDto(TEST_TASK_NAME, TEST_DESCRIPTION, null, doneId, Set.of()))
+                .andExpect(status().isCreated());
+
+        TaskStats stats = getStats();
+        assertEquals(3, stats.total());
+        assertEquals(2, stats.unassigned());
+        assertThat(stats.byStatus()).isEqualTo(Map.of(statusId, 2L, doneId, 1L));
+        assertThat(stats.byExecutor()).isEqualTo(Map.of(userId, 1L));
+        assertThat(stats.byLabel()).isEqualTo(Map.of(labelId, 2L));
+
+        final var bulkUpdate = patch(TASK_CONTROLLER_PATH + BULK + "?taskStatus={status}", statusId)
+                .content(asJson(new TaskBulkUpdateDto(null, doneId, null)))
+                .contentType(APPLICATION_JSON);
+        utils.perform(bulkUpdate, TEST_EMAIL).andExpect(status().isOk());
+        // сверка после массового изменения идет в фоне, здесь - без ожидания планировщика
+        taskCounters.reconcileAfterBulkUpdates();
+        final Long assignedId = taskRepository.findAll().stream()
+                .filter(task -> task.getExecutor() != null)
+                .findFirst()
+                .get()
+                .getId();
+        utils.perform(delete(TASK_CONTROLLER_PATH + ID, assignedId), TEST_EMAIL).andExpect(status().isOk());
+
+        stats = getStats();
+        assertEquals(2, stats.total());
+        assertEquals(2, stats.unassigned());
+        assertThat(stats.byStatus()).isEqualTo(Map.of(doneId, 2L));
+        assertThat(stats.byExecutor()).isEmpty();
+        assertThat(stats.byLabel()).isEqualTo(Map.of(labelId, 1L));
+    }
+
+    @Test
+    public void getTaskChangesTest() throws Exception {
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Long doneId = taskStatusRepository.save(new TaskStatus(null, "done", null, null)).getId();
+        postTask(new TaskDto("first", TEST_DESCRIPTION, null, statusId, Set.of())).andExpect(status().isCreated());
+        postTask(new TaskDto("second", TEST_DESCRIPTION, null, statusId, Set.of())).andExpect(status().isCreated());
+        postTask(new TaskDto("third", TEST_DESCRIPTION, null, statusId, Set.of())).andExpect(status().isCreated());
+
+        TaskChanges changes = getChanges(null);
+        assertThat(changes.changed()).extracting("name").containsExactly("first", "second", "third");
+        assertThat(changes.deleted()).isEmpty();
+        assertThat(changes.hasMore()).isFalse();
+
+        final String watermark = changes.next();
+        changes = getChanges(watermark);
+        assertThat(changes.changed()).isEmpty();
+        assertThat(changes.deleted()).isEmpty();
+
+        final Map<String, Long> ids = new HashMap<>();
+        taskRepository.findAll().forEach(task -> ids.put(task.getName(), task.getId()));
+        final var update = put(TASK_CONTROLLER_PATH + ID, ids.get("second"))
+                .content(asJson(new TaskDto("second", "changed", null, statusId, Set.of())))
+                .contentType(APPLICATION_JSON);
+        utils.perform(update, TEST_EMAIL).andExpect(status().isOk());
+        final var bulkUpdate = patch(TASK_CONTROLLER_PATH + BULK)
+                .content(asJson(new TaskBulkUpdateDto(Set.of(ids.get("third")), doneId, null)))
+                .contentType(APPLICATION_JSON);
+        utils.perform(bulkUpdate, TEST_EMAIL).andExpect(status().isOk());
+        utils.perform(delete(TASK_CONTROLLER_PATH + ID, ids.get("first")), TEST_EMAIL).andExpect(status().isOk());
+
+        changes = getChanges(watermark);
+        assertThat(changes.changed()).extracting("name").containsExactly("second", "third");
+        assertThat(changes.changed().get(1).taskStatus().id()).isEqualTo(doneId);
+        assertThat(changes.deleted()).containsExactly(ids.get("first"));
+        assertThat(getChanges(changes.next()).changed()).isEmpty();
+    }
+
+    @Test
+    public void getTaskChangesWithInvalidOrExpiredWatermarkTest() throws Exception {
+        utils.perform(get(TASK_CONTROLLER_PATH + CHANGES).param("since", "not a token"), TEST_EMAIL)
+                .andExpect(status().isBadRequest());
+        final String expired = new TaskChangesToken(Instant.EPOCH, 0L).encode();
+        utils.perform(get(TASK_CONTROLLER_PATH + CHANGES).param("since", expired), TEST_EMAIL)
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    public void taskEventsStreamTest() throws Exception {
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Long doneId = taskStatusRepository.save(new TaskStatus(null, "done", null, null)).getId();
+        final MvcResult subscription = utils.perform(
+                        get(TASK_CONTROLLER_PATH + EVENTS).param("taskStatusId", statusId.toString()), TEST_EMAIL)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        postTask(new TaskDto("watched", TEST_DESCRIPTION, null, statusId, Set.of())).andExpect(status().isCreated());
+        postTask(new TaskDto("other", TEST_DESCRIPTION, null, doneId, Set.of())).andExpect(status().isCreated());
+        final Long watchedId = taskRepository.findAll().stream()
+                .filter(task -> task.getName().equals("watched"))
+                .findFirst()
+                .get()
+                .getId();
+        // задача ушла из фильтра - подписчик все равно узнает об этом
+        final var update = put(TASK_CONTROLLER_PATH + ID, watchedId)
+                .content(asJson(new TaskDto("watched", TEST_DESCRIPTION, null, doneId, Set.of())))
+                .contentType(APPLICATION_JSON);
+        utils.perform(update, TEST_EMAIL).andExpect(status().isOk());
+
+        final String stream = awaitContent(subscription, "event:updated");
+        assertThat(stream).contains("event:created\ndata:{\"id\":" + watchedId + ",\"name\":\"watched\"");
+        assertThat(stream).contains("\"taskStatusId\":" + doneId);
+        assertThat(stream).doesNotContain("\"name\":\"other\"");
+    }
+
+    // Событие пишется в ответ потоком рассылки уже после коммита
+    private static String awaitContent(final MvcResult result, final String expected) throws Exception {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    @Test
+    public void filteredTaskListIsCachedTest() throws Exception {
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Long doneId = taskStatusRepository.save(new TaskStatus(null, "done", null, null)).getId();
+        postTask(new TaskDto("first", TEST_DESCRIPTION, null, statusId, Set.of())).andExpect(status().isCreated());
+        postTask(new TaskDto("other", TEST_DESCRIPTION, null, doneId, Set.of())).andExpect(status().isCreated());
+        final double invalidations = cacheInvalidations();
+        final double hits = cacheHits();
+
+        assertThat(listNames("?taskStatus=" + statusId + "&size=10")).containsExactly("first");
+        // второй запрос фильтра кладет его в кэш; тот же фильтр с другим порядком параметров
+        assertThat(listNames("?size=10&taskStatus=" + statusId)).containsExactly("first");
+        assertThat(cacheHits()).isEqualTo(hits);
+        assertThat(listNames("?taskStatus=" + statusId)).containsExactly("first");
+        assertThat(cacheHits()).isEqualTo(hits + 1);
+
+        // задача другого статуса на фильтр не влияет
+        postTask(new TaskDto("another", TEST_DESCRIPTION, null, doneId, Set.of())).andExpect(status().isCreated());
+        assertThat(cacheInvalidations()).isEqualTo(invalidations);
+
+        postTask(new TaskDto("second", TEST_DESCRIPTION, null, statusId, Set.of())).andExpect(status().isCreated());
+        assertThat(cacheInvalidations()).isEqualTo(invalidations + 1);
+        assertThat(listNames("?taskStatus=" + statusId + "&size=1")).containsExactly("first");
+        assertThat(listNames("?taskStatus=" + statusId)).containsExactly("first", "second");
+    }
+
+    @Test
+    public void filterTasksByLabelSetsTest() throws Exception {
+        final Long statusId = taskStatusRepository.findAll().get(0).getId();
+        final Long a = labelRepository.findAll().get(0).getId();
+        final Long b = labelRepository.save(new Label(null, TEST_LABEL_NAME + "B", null, null)).getId();
+        final Long c = labelRepository.save(new Label(null, TEST_LABEL_NAME + "C", null, null)).getId();
+        postTask(new TaskDto("ab", TEST_DESCRIPTION, null, statusId, Set.of(a, b))).andExpect(status().isCreated());
+        postTask(new TaskDto("a", TEST_DESCRIPTION, null, statusId, Set.of(a))).andExpect(status().isCreated());
+        postTask(new TaskDto("bc", TEST_DESCRIPTION, null, statusId, Set.of(b, c))).andExpect(status().isCreated());
+        postTask(new TaskDto("none", TEST_DESCRIPTION, null, statusId, Set.of())).andExpect(status().isCreated());
+
+        assertThat(listNames("?allLabels=" + a + "," + b)).containsExactly("ab");
+        assertThat(listNames("?anyLabels=" + a + "," + c + "&withoutLabels=" + b)).containsExactly("a");
+        assertThat(listNames("?withoutLabels=" + a)).containsExactly("bc", "none");
+        assertThat(listNames("?allLabels=" + c + "&anyLabels=" + a)).isEmpty();
+        assertThat(listNames("?anyLabels=" + b + "&size=1")).containsExactly("ab");
+
+        // индекс меняется вместе с задачами
+        final Long abId = taskRepository.findAll().stream()
+                .filter(task -> task.getName().equals("ab"))
+                .findFirst()
+                .get()
+                .getId();
+        utils.perform(delete(TASK_CONTROLLER_PATH + ID, abId), TEST_EMAIL).andExpect(status().isOk());
+        assertThat(listNames("?allLabels=" + a + "," + b)).isEmpty();
+        assertThat(listNames("?anyLabels=" + b)).containsExactly("bc");
+    }
+
+    @Test
+    public void importTasksTest() throws Exception {
+        final String csv = "name,description,status,executor,labels\n"
+                + "first,,defaultStatus,email@yandex.ru,testLabel\n"
+                + "second,\"with, comma\",defaultStatus,,\n"
+                + "third,,unknownStatus,,\n"
+                + ",,defaultStatus,,\n"
+                + "fifth,,defaultStatus,,missing;testLabel\n";
+        final var csvRequest = post(TASK_CONTROLLER_PATH + IMPORTS).contentType(TEXT_CSV_VALUE).content(csv);
+        final TaskImportStatus csvImport = fromJson(utils.perform(csvRequest, TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), new TypeReference<>() {
+                });
+
+        assertThat(csvImport.state()).isEqualTo(TaskImportStatus.State.COMPLETED);
+        assertThat(csvImport.rows()).isEqualTo(5);
+        assertThat(csvImport.imported()).isEqualTo(2);
+        assertThat(csvImport.failed()).isEqualTo(3);
+        assertThat(csvImport.errors())
+                .extracting(TaskImportError::row, TaskImportError::field)
+                .containsOnly(tuple(3L, "status"), tuple(4L, "name"), tuple(5L, "labels"));
+        final Task first = taskRepository.findAll().stream()
+                .filter(task -> task.getName().equals("first"))
+                .findFirst()
+                .get();
+        assertEquals(TEST_EMAIL, first.getExecutor().getEmail());
+        assertThat(listNames("?anyLabels=" + labelRepository.findAll().get(0).getId())).containsExactly("first");
+
+        final String ndjson = "{\"name\": \"sixth\", \"status\": \"defaultStatus\", \"labels\": [\"testLabel\"]}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"name\": \"seventh\", \"status\": \"defaultStatus\"}\n";
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(ndjson.getBytes(UTF_8));
+        }
+        final var ndjsonRequest = post(TASK_CONTROLLER_PATH + IMPORTS)
+                .contentType(APPLICATION_NDJSON)
+                .header(CONTENT_ENCODING, "gzip")
+                .content(compressed.toByteArray());
+        final TaskImportStatus ndjsonImport = fromJson(utils.perform(ndjsonRequest, TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), new TypeReference<>() {
+                });
+
+        assertThat(ndjsonImport.imported()).isEqualTo(2);
+        assertThat(ndjsonImport.errors()).extracting(TaskImportError::row).containsExactly(2L);
+        assertEquals(4, taskRepository.count());
+
+        final String progress = utils.perform(get(TASK_CONTROLLER_PATH + IMPORTS + ID, ndjsonImport.id()), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals(ndjsonImport, fromJson(progress, new TypeReference<TaskImportStatus>() {
+        }));
+        final String imports = utils.perform(get(TASK_CONTROLLER_PATH + IMPORTS), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        final List<TaskImportStatus> allImports = fromJson(imports, new TypeReference<>() {
+        });
+        assertThat(allImports).extracting(TaskImportStatus::id).containsExactly(ndjsonImport.id(), csvImport.id());
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", TaskQueryCache.METRIC_NAME).tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private double cacheInvalidations() {
+        return meterRegistry.get(TaskQueryCache.METRIC_NAME + ".invalidations").counter().count();
+    }
+
+    private List<String> listNames(final String query) throws Exception {
+        final String body = utils.perform(get(TASK_CONTROLLER_PATH + query), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        final List<Map<String, Object>> tasks = fromJson(body, new TypeReference<>() {
+        });
+        return tasks.stream().map(task -> (String) task.get("name")).toList();
+    }
+
+    private TaskChanges getChanges(final String since) throws Exception {
+        // текущая миллисекунда в ответ не попадает
+        Thread.sleep(2);
+        final var request = get(TASK_CONTROLLER_PATH + CHANGES);
+        if (since != null) {
+            request.param("since", since);
+        }
+        final String body = utils.perform(request, TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return fromJson(body, new TypeReference<>() {
+        });
+    }
+
+    private TaskStats getStats() throws Exception {
+        final String body = utils.perform(get(TASK_CONTROLLER_PATH + STATS), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return fromJson(body, new TypeReference<>() {
+        });
+    }
+
+    private List<String> searchNames(final String query) throws Exception {
+        final String body = utils.perform(get(TASK_CONTROLLER_PATH + SEARCH).param("q", query), TEST_EMAIL)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        final List<Map<String, Object>> tasks = fromJson(body, new TypeReference<>() {
+        });
+        return tasks.stream().map(task -> (String) task.get("name")).toList();
+    }
+
+    private ResultActions postTask(final TaskDto dto) throws Exception {
+        final var request = post(TASK_CONTROLLER_PATH)
+                .content(asJson(dto))
+                .contentType(APPLICATION_JSON);
+        return utils.perform(request, TEST_EMAIL);
+    }
+
+    private ResultActions postTask(final TaskDto dto, final String idempotencyKey) throws Exception {
+        final var request = post(TASK_CONTROLLER_PATH)
+                .header(IDEMPOTENCY_KEY, idempotencyKey)
+                .content(asJson(dto))
+                .contentType(APPLICATION_JSON);
+        return utils.perform(request, TEST_EMAIL);
+    }
+
 }
@@ -7,6 +7,7 @@ import hexlet.code.model.TaskStatus;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.utils.TestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +28,7 @@ import static hexlet.code.utils.TestUtils.TEST_STATUS;
 import static hexlet.code.utils.TestUtils.asJson;
 import static hexlet.code.utils.TestUtils.fromJson;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -50,6 +52,9 @@ public class TaskStatusControllerTest {
     @Autowired
     private TestUtils utils;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     public void beforeEach() throws Exception {
         utils.regDefaultUser();
@@ -147,6 +152,35 @@ public class TaskStatusControllerTest {
         assertEquals(0, taskStatusRepository.count());
     }
 
+    @Test
+    public void cachedStatusEvictedOnUpdateAndDeleteTest() throws Exception {
+        utils.addDefaultStatus()
+                .andExpect(status().isCreated());
+        final Long id = taskStatusRepository.findByName(TEST_STATUS).get().getId();
+        assertEquals(TEST_STATUS, taskStatusRepository.findById(id).get().getName());
+        assertEquals(id, taskStatusRepository.findByName(TEST_STATUS).get().getId());
+
+        final var requestToUpdate = put(STATUS_CONTROLLER_PATH + ID, id)
+                .content(asJson(new TaskStatusDto("newStatus")))
+                .contentType(APPLICATION_JSON);
+        utils.perform(requestToUpdate, TEST_EMAIL)
+                .andExpect(status().isOk());
+
+        assertEquals("newStatus", taskStatusRepository.findById(id).get().getName());
+        assertTrue(taskStatusRepository.findByName(TEST_STATUS).isEmpty());
+        assertEquals(id, taskStatusRepository.findByName("newStatus").get().getId());
+
+        utils.perform(delete(STATUS_CONTROLLER_PATH + ID, id), TEST_EMAIL)
+                .andExpect(status().isOk());
+
+        assertTrue(taskStatusRepository.findById(id).isEmpty());
+        assertTrue(taskStatusRepository.findByName("newStatus").isEmpty());
+        assertTrue(meterRegistry.get("hibernate.cache.hit.ratio")
+                .tag("region", TaskStatus.class.getName())
+                .gauge()
+                .value() > 0);
+    }
+
     @Test
     public void deleteWhenStatusAssociatedWithTaskTest() throws Exception {
         utils.addDefaultLabel();
@@ -1,23 +1,35 @@
 package hexlet.code.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import hexlet.code.component.JWTHelper;
+import hexlet.code.component.PasswordHashingExecutor;
 import hexlet.code.config.SpringConfigForTest;
 import hexlet.code.dto.LoginDto;
 import hexlet.code.dto.UserDto;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.utils.TestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static hexlet.code.component.IdempotentRequests.IDEMPOTENCY_KEY;
+import static hexlet.code.component.PasswordHashUpgrader.strengthOf;
 import static hexlet.code.config.SpringConfigForTest.TEST_PROFILE;
 import static hexlet.code.config.security.SecurityConfig.LOGIN;
 import static hexlet.code.controller.UserController.ID;
@@ -31,11 +43,14 @@ import static hexlet.code.utils.TestUtils.fromJson;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -44,12 +59,24 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(webEnvironment = RANDOM_PORT, classes = SpringConfigForTest.class)
 public class UserControllerTest {
 
+    private static final int MAX_BLOCKING_TASKS = 10_000;
+    private static final long IDLE_TIMEOUT_MS = 5_000;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private TestUtils utils;
 
+    @Autowired
+    private JWTHelper jwtHelper;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @AfterEach
     public void clear() {
         utils.tearDown();
@@ -75,6 +102,54 @@ public class UserControllerTest {
         utils.perform(request).andExpect(status().isUnprocessableEntity());
     }
 
+    @Test
+    public void concurrentRegistrationsWithSameIdempotencyKey() throws Exception {
+        final int clients = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            final List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                responses.add(executor.submit(() -> utils.perform(post(USER_CONTROLLER_PATH)
+                                .header(IDEMPOTENCY_KEY, "registration")
+                                .content(asJson(utils.getTestDto()))
+                                .contentType(APPLICATION_JSON))
+                        .andExpect(status().isCreated())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString()));
+            }
+            final String first = responses.get(0).get();
+            for (final Future<String> response : responses) {
+                assertEquals(first, response.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    public void registrationRejectedWhilePasswordHashingIsSaturated() throws Exception {
+        // фоновый пересчет хеша из прошлых тестов, завершившись, освободил бы место для регистрации
+        awaitPasswordHashingIdle();
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            // занимаем все потоки и очередь пула BCrypt
+            int submitted = 0;
+            while (submitted < MAX_BLOCKING_TASKS && passwordHashingExecutor.submit(() -> await(release))) {
+                submitted++;
+            }
+            assertThat(submitted).isLessThan(MAX_BLOCKING_TASKS);
+
+            utils.regDefaultUser()
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(RETRY_AFTER, "1"));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(0, userRepository.count());
+    }
+
     @Test
     public void twiceRegUserFail() throws Exception {
         utils.regDefaultUser().andExpect(status().isCreated());
@@ -95,6 +170,44 @@ public class UserControllerTest {
         utils.perform(request).andExpect(status().isOk());
     }
 
+    @Test
+    public void loginTokenCarriesUserId() throws Exception {
+        utils.regDefaultUser();
+        final Long expectedId = userRepository.findByEmail(TEST_EMAIL).get().getId();
+
+        final LoginDto loginDto = new LoginDto(TEST_FIRST_NAME, TEST_LAST_NAME, TEST_EMAIL, TEST_PASSWORD);
+        final var request = post(LOGIN).content(asJson(loginDto)).contentType(APPLICATION_JSON);
+        final String token = utils.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .trim();
+
+        assertThat(jwtHelper.verify(token).userId()).isEqualTo(expectedId);
+        utils.perform(get(USER_CONTROLLER_PATH).header(AUTHORIZATION, token)).andExpect(status().isOk());
+    }
+
+    @Test
+    public void loginUpgradesOutdatedPasswordHash() throws Exception {
+        utils.regDefaultUser();
+        final User user = userRepository.findByEmail(TEST_EMAIL).get();
+        user.setPassword(new BCryptPasswordEncoder(4).encode(TEST_PASSWORD));
+        userRepository.save(user);
+
+        final LoginDto loginDto = new LoginDto(TEST_FIRST_NAME, TEST_LAST_NAME, TEST_EMAIL, TEST_PASSWORD);
+        final var request = post(LOGIN).content(asJson(loginDto)).contentType(APPLICATION_JSON);
+        utils.perform(request).andExpect(status().isOk());
+
+        String hash = user.getPassword();
+        for (int attempt = 0; attempt < 50 && strengthOf(hash) == 4; attempt++) {
+            Thread.sleep(100);
+            hash = userRepository.findByEmail(TEST_EMAIL).get().getPassword();
+        }
+        assertThat(strengthOf(hash)).isEqualTo(10);
+        utils.perform(request).andExpect(status().isOk());
+    }
+
     @Test
     public void failedLoginTest() throws Exception {
         utils.regDefaultUser();
@@ -144,6 +257,21 @@ public class UserControllerTest {
         assertThat(users).hasSize(1);
     }
 
+    @Test
+    public void updateUserWithTokenWithoutUserIdTest() throws Exception {
+        utils.regDefaultUser();
+        final Long id = userRepository.findByEmail(TEST_EMAIL).get().getId();
+        final UserDto dto = new UserDto(TEST_EMAIL, "updateFName", TEST_LAST_NAME, TEST_PASSWORD);
+
+        // токены, выпущенные до появления claim userId: id ищется по email
+        final var request = put(USER_CONTROLLER_PATH + ID, id)
+                .content(asJson(dto))
+                .contentType(APPLICATION_JSON);
+        utils.performWithClaims(request, Map.of("username", TEST_EMAIL)).andExpect(status().isOk());
+
+        assertThat(userRepository.findById(id).get().getFirstName()).isEqualTo("updateFName");
+    }
+
     @Test
     public void updateUserTest() throws Exception {
         utils.regDefaultUser();
@@ -207,4 +335,24 @@ public class UserControllerTest {
                 .andExpect(status().isUnprocessableEntity());
     }
 
+    private void awaitPasswordHashingIdle() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + IDLE_TIMEOUT_MS;
+        while (executorGauge("executor.active") + executorGauge("executor.queued") > 0) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private double executorGauge(final String name) {
+        return meterRegistry.get(name).tag("name", PasswordHashingExecutor.METRIC_NAME).gauge().value();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
 }
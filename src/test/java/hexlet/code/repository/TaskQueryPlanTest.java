@@ -0,0 +1,136 @@
+package hexlet.code.repository;
+
+import hexlet.code.config.SpringConfigForTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static hexlet.code.config.SpringConfigForTest.TEST_PROFILE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+// Планы H2 для основных форм запросов к задачам. Схема - из Liquibase, как в проде.
+// H2 сам индексирует колонки внешних ключей и при равной стоимости может выбрать их, а PostgreSQL - нет,
+// поэтому составные индексы проверяются отдельно по INFORMATION_SCHEMA.
+@AutoConfigureMockMvc
+@ActiveProfiles(TEST_PROFILE)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, classes = SpringConfigForTest.class)
+public class TaskQueryPlanTest {
+
+    // Каждое обращение к таблице в плане: /* PUBLIC.INDEX_NAME: CONDITION */ или /* PUBLIC.TABLE.tableScan */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.([A-Z0-9_.]+?)(:[^*]*)? \\*/");
+
+    private static final String TASK_PAGE = """
+            select t.id, t.name, s.name, a.email, e.email from tasks t
+            join task_statuses s on s.id = t.task_status_id
+            join users a on a.id = t.author_id
+            left join users e on e.id = t.executor_id
+            """;
+    private static final String ORDER_BY_CURSOR = " order by t.created_at, t.id limit 20";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void compositeIndexesExist() {
+        assertThat(indexColumns("TASKS", "IDX_TASKS_STATUS_CREATED_AT")).isEqualTo("TASK_STATUS_ID,CREATED_AT,ID");
+        assertThat(indexColumns("TASKS", "IDX_TASKS_EXECUTOR_CREATED_AT")).isEqualTo("EXECUTOR_ID,CREATED_AT,ID");
+        assertThat(indexColumns("TASKS", "IDX_TASKS_AUTHOR_CREATED_AT")).isEqualTo("AUTHOR_ID,CREATED_AT,ID");
+        assertThat(indexColumns("TASKS_LABELS", "IDX_TASKS_LABELS_LABEL_TASK")).isEqualTo("LABELS_ID,TASK_ID");
+        assertThat(indexColumns("TASKS", "IDX_TASKS_UPDATED_AT_ID")).isEqualTo("UPDATED_AT,ID");
+    }
+
+    @Test
+    public void taskPageWithoutFilterIsReadInIndexOrder() {
+        final String plan = explain(TASK_PAGE + ORDER_BY_CURSOR);
+        assertThat(plan).contains("IDX_TASKS_CREATED_AT_ID").contains("index sorted");
+    }
+
+    @Test
+    public void taskPageFilteredByStatusUsesIndex() {
+        assertNoFullScan(explain(TASK_PAGE + "where t.task_status_id = 1" + ORDER_BY_CURSOR),
+                "TASK_STATUS_ID");
+    }
+
+    @Test
+    public void taskPageFilteredByExecutorUsesIndex() {
+        assertNoFullScan(explain(TASK_PAGE + "where t.executor_id = 1" + ORDER_BY_CURSOR),
+                "EXECUTOR_ID");
+    }
+
+    @Test
+    public void taskPageFilteredByAuthorUsesIndex() {
+        assertNoFullScan(explain(TASK_PAGE + "where t.author_id = 1" + ORDER_BY_CURSOR),
+                "AUTHOR_ID");
+    }
+
+    @Test
+    public void taskPageFilteredByLabelUsesIndex() {
+        final String sql = TASK_PAGE + "where exists (select 1 from tasks_labels tl "
+                + "where tl.task_id = t.id and tl.labels_id = 1)" + ORDER_BY_CURSOR;
+        final String joinSql = "select t.id from tasks_labels tl join tasks t on t.id = tl.task_id "
+                + "where tl.labels_id = 1" + ORDER_BY_CURSOR;
+        assertNoFullScan(explain(joinSql), "LABELS_ID");
+        assertThat(explain(sql)).doesNotContain("tableScan");
+    }
+
+    @Test
+    public void changesSinceWatermarkAreReadInIndexOrder() {
+        final String plan = explain("select t.id from tasks t where t.updated_at > timestamp '2024-01-01 00:00:00' "
+                + "and t.updated_at <= timestamp '2024-01-02 00:00:00' order by t.updated_at, t.id limit 101");
+        assertNoFullScan(plan, "UPDATED_AT");
+        assertThat(plan).contains("IDX_TASKS_UPDATED_AT_ID").contains("index sorted");
+        assertNoFullScan(explain("select task_id from task_tombstones "
+                + "where deleted_at > timestamp '2024-01-01 00:00:00' "
+                + "and deleted_at <= timestamp '2024-01-02 00:00:00'"), "DELETED_AT");
+    }
+
+    @Test
+    public void labelsOfTaskPageUsePrimaryKey() {
+        assertNoFullScan(explain("select tl.task_id, l.id, l.name from tasks_labels tl "
+                + "join labels l on l.id = tl.labels_id where tl.task_id in (1, 2, 3)"), "TASK_ID");
+    }
+
+    // Те же проверки, что делает БД по внешним ключам при удалении статуса, пользователя и метки
+    @Test
+    public void referenceChecksOnDeleteUseIndexes() {
+        assertNoFullScan(explain("select 1 from tasks where task_status_id = 1 limit 1"),
+                "TASK_STATUS_ID");
+        assertNoFullScan(explain("select 1 from tasks where author_id = 1 limit 1"),
+                "AUTHOR_ID");
+        assertNoFullScan(explain("select 1 from tasks where executor_id = 1 limit 1"),
+                "EXECUTOR_ID");
+        assertNoFullScan(explain("select 1 from tasks_labels where labels_id = 1 limit 1"),
+                "LABELS_ID");
+    }
+
+    private String explain(final String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+
+    private String indexColumns(final String table, final String index) {
+        return String.join(",", jdbcTemplate.queryForList(
+                "select column_name from information_schema.indexes where table_name = ? and index_name = ? "
+                        + "order by ordinal_position", String.class, table, index));
+    }
+
+    // Все таблицы читаются по индексу с условием, первая - по условию на ожидаемую колонку
+    private static void assertNoFullScan(final String plan, final String leadingColumn) {
+        final Matcher access = TABLE_ACCESS.matcher(plan);
+        assertThat(access.find()).as(plan).isTrue();
+        assertThat(access.group(2)).as(plan).startsWith(": " + leadingColumn + " ");
+        do {
+            assertThat(access.group(2)).as("full scan of %s in%n%s", access.group(1), plan).isNotNull();
+        } while (access.find());
+    }
+
+}
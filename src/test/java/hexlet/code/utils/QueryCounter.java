@@ -0,0 +1,39 @@
+package hexlet.code.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Подключается в тестовом application.yml через hibernate.session_factory.statement_inspector
+public class QueryCounter implements StatementInspector {
+
+    private static final AtomicInteger SELECTS = new AtomicInteger();
+    // При JDBC-батчинге statement готовится один раз на батч
+    private static final AtomicInteger INSERTS = new AtomicInteger();
+
+    @Override
+    public String inspect(final String sql) {
+        final String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (statement.startsWith("select")) {
+            SELECTS.incrementAndGet();
+        } else if (statement.startsWith("insert")) {
+            INSERTS.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        SELECTS.set(0);
+        INSERTS.set(0);
+    }
+
+    public static int selects() {
+        return SELECTS.get();
+    }
+
+    public static int inserts() {
+        return INSERTS.get();
+    }
+
+}
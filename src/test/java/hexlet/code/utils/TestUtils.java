@@ -4,6 +4,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import hexlet.code.component.JWTHelper;
+import hexlet.code.component.TaskCounters;
+import hexlet.code.component.LabelBitmapIndex;
+import hexlet.code.component.TaskQueryCache;
+import hexlet.code.component.TaskSearchIndex;
 import hexlet.code.dto.LabelDto;
 import hexlet.code.dto.TaskDto;
 import hexlet.code.dto.TaskStatusDto;
@@ -12,6 +16,7 @@ import hexlet.code.model.User;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.TaskTombstoneRepository;
 import hexlet.code.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -23,6 +28,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import static hexlet.code.component.JWTHelper.USER_ID;
 import static hexlet.code.controller.LabelController.LABEL_CONTROLLER_PATH;
 import static hexlet.code.controller.TaskController.TASK_CONTROLLER_PATH;
 import static hexlet.code.controller.TaskStatusController.STATUS_CONTROLLER_PATH;
@@ -70,14 +76,34 @@ public class TestUtils {
     @Autowired
     private LabelRepository labelRepository;
 
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
     @Autowired
     private JWTHelper jwtHelper;
 
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private TaskCounters taskCounters;
+
+    @Autowired
+    private TaskQueryCache taskQueryCache;
+
+    @Autowired
+    private LabelBitmapIndex labelBitmapIndex;
+
     public void tearDown() {
         taskRepository.deleteAll();
         taskStatusRepository.deleteAll();
         labelRepository.deleteAll();
         userRepository.deleteAll();
+        taskTombstoneRepository.deleteAll();
+        taskSearchIndex.clear();
+        taskCounters.reconcile();
+        taskQueryCache.clear();
+        labelBitmapIndex.rebuild();
     }
 
     public User getUserByEmail(final String email) {
@@ -126,9 +152,17 @@ public class TestUtils {
         return perform(request, TEST_EMAIL);
     }
 
+    // Токен как при входе: с userId, если пользователь зарегистрирован
     public ResultActions perform(final MockHttpServletRequestBuilder request, final String byUser) throws Exception {
-        final String token = jwtHelper.expiring(Map.of("username", byUser));
-        request.header(AUTHORIZATION, token);
+        final Map<String, Object> claims = userRepository.findByEmail(byUser)
+                .<Map<String, Object>>map(user -> Map.of("username", byUser, USER_ID, user.getId()))
+                .orElseGet(() -> Map.of("username", byUser));
+        return performWithClaims(request, claims);
+    }
+
+    public ResultActions performWithClaims(final MockHttpServletRequestBuilder request,
+                                           final Map<String, Object> claims) throws Exception {
+        request.header(AUTHORIZATION, jwtHelper.expiring(claims));
 
         return perform(request);
     }